@@ -0,0 +1,67 @@
+#!/usr/bin/env bash
+# Measures startup time and resident memory of the service in each build mode and prints them as a Markdown table.
+#
+#   mvn -Pfast-startup -DskipTests package      # exec jar, AOT thin jar and CDS archive
+#   mvn -Pnative -DskipTests native:compile     # optional, native image in target/post-service
+#   scripts/measure-startup.sh [runs]
+#
+# Every mode is started against the database of application.properties; point it elsewhere with the usual
+# SPRING_DATASOURCE_URL, SPRING_DATASOURCE_USERNAME and SPRING_DATASOURCE_PASSWORD variables. Startup time is the
+# "process running for" time Spring Boot logs once the application has started, RSS is read right after that.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+runs=${1:-5}
+version=$(sed -n 's|^\t<version>\(.*\)</version>$|\1|p' pom.xml | head -1)
+jar=target/post-service-$version.jar
+exec_jar=target/post-service-$version-exec.jar
+archive=target/post-service.jsa
+native=target/post-service
+log=$(mktemp)
+trap 'rm -f "$log"' EXIT
+
+# Starts the command, waits until the application has started and prints "<seconds> <rss in MB>".
+measure() {
+  "$@" --server.port=0 >"$log" 2>&1 &
+  local pid=$!
+  for _ in $(seq 1 1200); do
+    if grep -q "Started PostServiceApplication" "$log"; then
+      local seconds rss
+      seconds=$(sed -n 's/.*process running for \([0-9.]*\)).*/\1/p' "$log" | head -1)
+      rss=$(ps -o rss= -p "$pid" | awk '{printf "%.0f", $1 / 1024}')
+      kill "$pid"
+      wait "$pid" 2>/dev/null || true
+      echo "$seconds $rss"
+      return
+    fi
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "Startup failed, log follows:" >&2
+      cat "$log" >&2
+      exit 1
+    fi
+    sleep 0.1
+  done
+  kill "$pid"
+  echo "Startup timed out" >&2
+  exit 1
+}
+
+report() {
+  local mode=$1
+  shift
+  local results=()
+  for _ in $(seq 1 "$runs"); do
+    results+=("$(measure "$@")")
+  done
+  printf '%s\n' "${results[@]}" | sort -n | awk -v mode="$mode" '
+    { seconds[NR] = $1; rss[NR] = $2 }
+    END { printf "| %s | %.2f | %d |\n", mode, seconds[int((NR + 1) / 2)], rss[int((NR + 1) / 2)] }'
+}
+
+echo "| Mode | Startup (s, median of $runs) | RSS (MB) |"
+echo "|------|------|------|"
+[ -f "$exec_jar" ] && report "JVM" java -jar "$exec_jar"
+[ -f "$jar" ] && report "JVM + AOT" java -Dspring.aot.enabled=true -jar "$jar"
+[ -f "$archive" ] && report "JVM + AOT + CDS" java -XX:SharedArchiveFile="$archive" -Dspring.aot.enabled=true -jar "$jar"
+[ -x "$native" ] && report "Native image" "$native"
+exit 0
@@ -0,0 +1,94 @@
+package sk.pelikan.post.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import sk.pelikan.post.PostServiceApplication;
+import sk.pelikan.post.dao.PostDao;
+import sk.pelikan.post.domain.Post;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert throughput of {@link PostDao#saveAll(Iterable)} in posts per second, with JDBC batching off
+ * ({@code batchSize} 0) and on. IDs come from the pooled sequence either way, so the difference is the insert round
+ * trips alone. Runs against in-memory H2 by default, which has no network round trip and understates the gain; with
+ * {@code SPRING_DATASOURCE_URL} (and the username and password variables) set it runs against that database instead
+ * and deletes the posts it inserted when done:
+ * <pre>
+ * SPRING_DATASOURCE_URL=jdbc:postgresql://localhost:5432/postgres mvn -Pbenchmark -DskipTests test-compile exec:exec -Djmh.args=PostInsertBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PostInsertBenchmark {
+    private static final int POSTS_PER_CALL = 500;
+    private static final int USERS = 100;
+    /**
+     * Users of the inserted posts start above this, so the posts can be told apart from real ones and removed.
+     */
+    private static final int USER_ID_OFFSET = 2_000_000_000;
+
+    @Param({"0", "50"})
+    public int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private PostDao postDao;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                "--spring.jpa.show-sql=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN"));
+        if (System.getenv("SPRING_DATASOURCE_URL") == null) {
+            args.addAll(List.of(
+                    "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                    "--spring.datasource.username=sa",
+                    "--spring.datasource.password=",
+                    "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"));
+        }
+        context = new SpringApplicationBuilder(PostServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+        postDao = context.getBean(PostDao.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.getBean(JdbcTemplate.class).update("DELETE FROM post WHERE user_id > ?", USER_ID_OFFSET);
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSTS_PER_CALL)
+    public Iterable<Post> saveAll() {
+        List<Post> posts = new ArrayList<>(POSTS_PER_CALL);
+        for (int i = 0; i < POSTS_PER_CALL; i++) {
+            posts.add(new Post(null, USER_ID_OFFSET + i % USERS + 1, "Title " + i, "Body of post " + i));
+        }
+        return postDao.saveAll(posts);
+    }
+}
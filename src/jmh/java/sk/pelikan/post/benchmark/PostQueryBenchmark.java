@@ -0,0 +1,122 @@
+package sk.pelikan.post.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import sk.pelikan.post.PostServiceApplication;
+import sk.pelikan.post.dao.PostDao;
+import sk.pelikan.post.domain.Post;
+import sk.pelikan.post.domain.PostSummary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query time of {@link PostDao} as the post table grows, with 100 posts per user. Runs against in-memory H2 by
+ * default; with {@code SPRING_DATASOURCE_URL} (and the username and password variables) set it runs against that
+ * database instead, e.g. PostgreSQL with the hash partitioned table, whose post table is truncated and reloaded
+ * when it does not hold {@code rows} posts:
+ * <pre>
+ * SPRING_DATASOURCE_URL=jdbc:postgresql://localhost:5432/postgres mvn -Pbenchmark -DskipTests test-compile exec:exec -Djmh.args=PostQueryBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PostQueryBenchmark {
+    private static final int POSTS_PER_USER = 100;
+    private static final int INSERT_BATCH_SIZE = 10_000;
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private PostDao postDao;
+    private int users;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.jpa.show-sql=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN"));
+        if (System.getenv("SPRING_DATASOURCE_URL") == null) {
+            args.addAll(List.of(
+                    "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                    "--spring.datasource.username=sa",
+                    "--spring.datasource.password=",
+                    "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"));
+        }
+        context = new SpringApplicationBuilder(PostServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+        postDao = context.getBean(PostDao.class);
+        users = Math.max(1, rows / POSTS_PER_USER);
+        load(context.getBean(JdbcTemplate.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Reads the first page of a random user's posts, pruned to that user's partition.
+     */
+    @Benchmark
+    public List<PostSummary> findPageByUserId() {
+        return postDao.findPageByUserId(ThreadLocalRandom.current().nextInt(users) + 1, 0, Limit.of(20));
+    }
+
+    /**
+     * Looks up a random post by ID alone, which probes every partition.
+     */
+    @Benchmark
+    public Optional<Post> findById() {
+        return postDao.findById(ThreadLocalRandom.current().nextInt(rows) + 1);
+    }
+
+    @Benchmark
+    public List<Integer> findByUserId() {
+        return postDao.findByUserId();
+    }
+
+    private void load(JdbcTemplate jdbc) {
+        Integer count = jdbc.queryForObject("SELECT count(*) FROM post", Integer.class);
+        if (count != null && count == rows) {
+            return;
+        }
+        jdbc.execute("TRUNCATE TABLE post");
+        for (int from = 1; from <= rows; from += INSERT_BATCH_SIZE) {
+            List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+            for (int id = from; id < from + INSERT_BATCH_SIZE && id <= rows; id++) {
+                batch.add(new Object[]{id, (id - 1) % users + 1, "Title " + id, "Body of post " + id});
+            }
+            jdbc.batchUpdate("INSERT INTO post (id, user_id, title, body, version) VALUES (?, ?, ?, ?, 0)", batch);
+        }
+        if (System.getenv("SPRING_DATASOURCE_URL") != null) {
+            jdbc.execute("ANALYZE post");
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package sk.pelikan.post.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import sk.pelikan.post.PostServiceApplication;
+import sk.pelikan.post.domain.Post;
+import sk.pelikan.post.service.PostService;
+import sk.pelikan.post.stub.UpstreamStub;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hot paths of {@link PostService} on the real Spring context, backed by in-memory H2 and {@link UpstreamStub}.
+ * Throughput is reported in ops/ms, sample time percentiles (p0.99 is the p99 latency) in ms/op. The upstream
+ * answers without delay unless {@code upstreamLatencyMillis} is set.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PostServiceBenchmark {
+    @Param("0")
+    public long upstreamLatencyMillis;
+
+    private UpstreamStub upstream;
+    private ConfigurableApplicationContext context;
+    private PostService postService;
+    private Integer localPostId;
+    private final AtomicInteger externalIds = new AtomicInteger();
+    private final AtomicInteger revisions = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        upstream = UpstreamStub.builder()
+                .posts(Integer.MAX_VALUE)
+                .users(1)
+                .latency(Duration.ofMillis(upstreamLatencyMillis))
+                .start();
+        context = new SpringApplicationBuilder(PostServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--post.external.base-url=" + upstream.getBaseUrl());
+        postService = context.getBean(PostService.class);
+        localPostId = postService.createPost(new Post(null, 1, "Local post", "Body of the local post")).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        upstream.close();
+    }
+
+    @Benchmark
+    public Optional<Post> getPostLocalHit() {
+        return postService.getPost(localPostId);
+    }
+
+    /**
+     * Every invocation asks for a post that is not stored yet, so it is fetched from the upstream and imported.
+     */
+    @Benchmark
+    public Optional<Post> getPostExternalMiss() {
+        return postService.getPost(externalIds.incrementAndGet());
+    }
+
+    @Benchmark
+    public Post createPost() {
+        return postService.createPost(new Post(null, 1, "New post", "Body of the new post"));
+    }
+
+    @Benchmark
+    public Optional<Post> updatePost() {
+        return postService.updatePost(new Post(localPostId, 1, "Local post " + revisions.incrementAndGet(), "Body of the local post"));
+    }
+}
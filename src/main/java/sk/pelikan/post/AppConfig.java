@@ -1,14 +1,108 @@
 package sk.pelikan.post;
 
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.transaction.support.TransactionOperations;
 import org.springframework.web.client.RestTemplate;
+import sk.pelikan.post.concurrent.SingleFlight;
+import sk.pelikan.post.config.ExternalApiProperties;
+import sk.pelikan.post.config.PostIdProperties;
+import sk.pelikan.post.config.SearchProperties;
+import sk.pelikan.post.dao.PostDao;
+import sk.pelikan.post.domain.Post;
+import sk.pelikan.post.domain.User;
+import sk.pelikan.post.domain.id.PostIdGenerator;
+import sk.pelikan.post.search.InMemoryPostSearchIndex;
+import sk.pelikan.post.search.PostSearchIndex;
+import sk.pelikan.post.search.PostgresPostSearchIndex;
+
+import javax.sql.DataSource;
+import java.net.http.HttpClient;
+import java.sql.DatabaseMetaData;
 
 @Configuration
+@ImportRuntimeHints(AppRuntimeHints.class)
 public class AppConfig {
 
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public HttpClient externalHttpClient(ExternalApiProperties properties) {
+        // The JDK client takes its connection pool limits from JVM-wide system properties read when the first client
+        // in the JVM is built, so they are set on the command line (jdk.httpclient.connectionPoolSize and
+        // jdk.httpclient.keepalive.timeout, see the readme) rather than here.
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(properties.getConnectTimeout())
+                .build();
+    }
+
+    @Bean
+    public RestTemplate restTemplate(RestTemplateBuilder builder, HttpClient externalHttpClient, ExternalApiProperties properties) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(externalHttpClient);
+        requestFactory.setReadTimeout(properties.getReadTimeout());
+        return builder.requestFactory(() -> requestFactory).build();
+    }
+
+    @Bean
+    public SingleFlight<Integer, Post> postImports(ExternalApiProperties properties) {
+        return new SingleFlight<>("post-imports", properties.getCoalesceTimeout());
+    }
+
+    @Bean
+    public SingleFlight<Integer, User> userLookups(ExternalApiProperties properties) {
+        return new SingleFlight<>("user-lookups", properties.getCoalesceTimeout());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer postIdHibernateProperties(PostIdProperties properties) {
+        return hibernateProperties -> {
+            hibernateProperties.put(PostIdGenerator.LOCAL_START_SETTING, properties.getLocalStart());
+            hibernateProperties.put(PostIdGenerator.ALLOCATION_SIZE_SETTING, properties.getAllocationSize());
+        };
+    }
+
+    /**
+     * Chosen by the database actually connected to rather than by the configured Hibernate dialect, which stays
+     * PostgreSQL when tests replace the database by an embedded one.
+     */
+    @Bean
+    public PostSearchIndex postSearchIndex(DataSource dataSource, NamedParameterJdbcTemplate jdbcTemplate,
+                                           PostDao postDao, TransactionOperations transactionOperations,
+                                           SearchProperties properties) throws MetaDataAccessException {
+        String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        if (DatabaseDriver.fromProductName(product) == DatabaseDriver.POSTGRESQL) {
+            return new PostgresPostSearchIndex(jdbcTemplate, properties.getTextSearchConfig(), properties.getMaxCandidates());
+        }
+        return new InMemoryPostSearchIndex(postDao, transactionOperations);
+    }
+
+    /**
+     * CBOR for callers sending {@code Accept: application/cbor}. Built from Boot's mapper builder, so the binary
+     * formats serialize exactly like the JSON responses, only more compactly.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    /**
+     * Smile for callers sending {@code Accept: application/x-jackson-smile}.
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
     }
 }
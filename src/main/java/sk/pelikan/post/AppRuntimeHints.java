@@ -0,0 +1,39 @@
+package sk.pelikan.post;
+
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import sk.pelikan.post.domain.BatchItemResult;
+import sk.pelikan.post.domain.ImportResult;
+import sk.pelikan.post.domain.IngestStatus;
+import sk.pelikan.post.domain.Post;
+import sk.pelikan.post.domain.PostChange;
+import sk.pelikan.post.domain.PostChangePage;
+import sk.pelikan.post.domain.PostPage;
+import sk.pelikan.post.domain.PostSummary;
+import sk.pelikan.post.domain.User;
+import sk.pelikan.post.domain.id.PostIdGenerator;
+
+/**
+ * Reflection and resource hints for the native image, covering what Spring's AOT processing cannot see: types
+ * Jackson binds behind {@code ResponseEntity<?>}, the arrays RestTemplate reads from the external API, the ID
+ * generator Hibernate instantiates by name and the migrations in vendor directories.
+ */
+public class AppRuntimeHints implements RuntimeHintsRegistrar {
+    private static final Class<?>[] JSON_TYPES = {
+            Post.class, User.class, PostSummary.class, PostPage.class, BatchItemResult.class, ImportResult.class,
+            IngestStatus.class, PostChange.class, PostChangePage.class
+    };
+
+    private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        bindingRegistrar.registerReflectionHints(hints.reflection(), JSON_TYPES);
+        hints.reflection().registerType(Post[].class);
+        hints.reflection().registerType(User[].class);
+        hints.reflection().registerType(PostIdGenerator.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.resources().registerPattern("db/migration/*/*.sql");
+    }
+}
@@ -0,0 +1,217 @@
+package sk.pelikan.post.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import sk.pelikan.post.config.PostCacheProperties;
+import sk.pelikan.post.domain.Post;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of posts in front of the database.
+ * Entries are detached snapshots: callers always receive their own copy, so mutating a returned post never
+ * changes what other requests see. Writers must invalidate entries after changing or deleting a post.
+ * <p>
+ * A read that started before an invalidation may still return the old row after it. Every invalidation is
+ * therefore stamped for {@code post.post-cache.stale-guard}, and a read-through only caches what it loaded if no
+ * invalidation of the post was stamped after the read started. Reads run outside of any cache lock.
+ * <p>
+ * Versions other instances notify through {@link #evictStale(Map)} are remembered for as long as well, and no
+ * older version of the post is cached meanwhile, so neither a read that raced the notification nor one served by a
+ * lagging replica can put the old post back.
+ */
+@Component
+public class PostCache implements MeterBinder {
+    private final Cache<Integer, Post> cache;
+    private final Cache<Integer, Long> invalidatedAt;
+    private final Cache<Integer, Long> minimumVersions;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public PostCache(PostCacheProperties properties) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        this.invalidatedAt = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getStaleGuard())
+                .build();
+        this.minimumVersions = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getStaleGuard())
+                .build();
+    }
+
+    /**
+     * Returns the cached post or reads it with the loader on a miss. Absent posts are not cached.
+     *
+     * @param id     the ID of the post
+     * @param loader reads the post from the database
+     * @return an Optional containing a copy of the post, or an empty Optional if the loader did not find it
+     */
+    public Optional<Post> get(Integer id, Function<Integer, Optional<Post>> loader) {
+        Post cached = cache.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(new Post(cached));
+        }
+        long started = invalidations.get();
+        Optional<Post> loaded = loader.apply(id);
+        loaded.ifPresent(post -> putLoaded(post, started));
+        return loaded;
+    }
+
+    /**
+     * Returns the cached posts and reads all missing ones with a single call of the loader.
+     *
+     * @param ids    the IDs of the posts
+     * @param loader reads the posts with the given IDs from the database
+     * @return copies of the found posts keyed by ID, absent posts are missing from the map
+     */
+    public Map<Integer, Post> getAll(Collection<Integer> ids, Function<Set<Integer>, Iterable<Post>> loader) {
+        Map<Integer, Post> result = new HashMap<>();
+        Set<Integer> missing = new HashSet<>();
+        for (Integer id : ids) {
+            Post cached = cache.getIfPresent(id);
+            if (cached != null) {
+                result.put(id, new Post(cached));
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long started = invalidations.get();
+            for (Post post : loader.apply(missing)) {
+                putLoaded(post, started);
+                result.put(post.getId(), post);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Caches a post just written. A newer version already cached or notified is kept.
+     */
+    public void put(Post post) {
+        Post copy = new Post(post);
+        cache.asMap().compute(post.getId(), (id, current) -> outdated(copy) ? current : newer(current, copy));
+    }
+
+    public void invalidate(Integer id) {
+        invalidateAll(Set.of(id));
+    }
+
+    /**
+     * Evicts the posts right away and, when called inside a transaction, once more after it completes, so that
+     * a concurrent reader cannot re-cache a row the transaction has not committed yet.
+     *
+     * @param ids the IDs of the posts to evict
+     */
+    public void invalidateAll(Collection<Integer> ids) {
+        evict(ids);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            Set<Integer> pending = Set.copyOf(ids);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(pending);
+                }
+            });
+        }
+    }
+
+    /**
+     * Evicts the cached posts older than the given versions. A post without version was deleted and is evicted
+     * whatever its cached version, a cached post already at the given version or newer is kept. Older versions, or
+     * any version of a deleted post, are not cached again for {@code post.post-cache.stale-guard}.
+     *
+     * @param versions the current versions of the posts, keyed by ID
+     * @return the number of evicted posts
+     */
+    public int evictStale(Map<Integer, Long> versions) {
+        int evicted = 0;
+        for (Map.Entry<Integer, Long> entry : versions.entrySet()) {
+            Long version = entry.getValue();
+            minimumVersions.asMap().merge(entry.getKey(), version == null ? Long.MAX_VALUE : version, Math::max);
+            boolean[] stale = new boolean[1];
+            cache.asMap().computeIfPresent(entry.getKey(), (id, cached) -> {
+                if (version != null && cached.getVersion() != null && cached.getVersion() >= version) {
+                    return cached;
+                }
+                stale[0] = true;
+                return null;
+            });
+            if (stale[0]) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Returns the versions of the cached posts, keyed by ID.
+     */
+    public Map<Integer, Long> versions() {
+        Map<Integer, Long> versions = new HashMap<>();
+        cache.asMap().forEach((id, post) -> versions.put(id, post.getVersion()));
+        return versions;
+    }
+
+    private void evict(Collection<Integer> ids) {
+        // stamp before evicting: a read-through that checks the stamp before it is set caches its post before the
+        // eviction below, which then removes it
+        long stamp = invalidations.incrementAndGet();
+        for (Integer id : ids) {
+            invalidatedAt.put(id, stamp);
+        }
+        cache.invalidateAll(ids);
+    }
+
+    private void putLoaded(Post post, long started) {
+        Post copy = new Post(post);
+        cache.asMap().compute(post.getId(), (id, current) -> {
+            Long invalidated = invalidatedAt.getIfPresent(id);
+            return invalidated != null && invalidated > started || outdated(copy) ? current : newer(current, copy);
+        });
+    }
+
+    private boolean outdated(Post post) {
+        Long minimum = minimumVersions.getIfPresent(post.getId());
+        return minimum != null && (post.getVersion() == null || post.getVersion() < minimum);
+    }
+
+    private static Post newer(Post current, Post candidate) {
+        if (current == null || current.getVersion() == null || candidate.getVersion() != null
+                && candidate.getVersion() >= current.getVersion()) {
+            return candidate;
+        }
+        return current;
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "posts");
+        Gauge.builder("post.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Share of post reads served from memory")
+                .register(registry);
+    }
+}
@@ -0,0 +1,203 @@
+package sk.pelikan.post.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import sk.pelikan.post.config.MembershipProperties;
+import sk.pelikan.post.config.PostIdProperties;
+import sk.pelikan.post.dao.PostDao;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Tells which post IDs can be answered without a round trip: a Bloom filter of the IDs stored in the database,
+ * which never misses a stored post, and a bounded set of IDs the external API reported missing. IDs in the range
+ * of locally created posts are never asked upstream either, as the external API does not serve them.
+ * <p>
+ * The Bloom filter is built on startup and rebuilt every {@code post.membership.rebuild-interval}. Until the first
+ * build completes, and while {@code post.membership.enabled} is off, every ID may be stored and none is known to
+ * be missing. Writers must report the IDs they store; deleted IDs stay in the filter until the next rebuild and
+ * only cost a database read.
+ */
+@Component
+public class PostMembershipIndex implements SchedulingConfigurer {
+    private static final Logger log = LoggerFactory.getLogger(PostMembershipIndex.class);
+
+    private final PostDao postDao;
+    private final TransactionOperations transactions;
+    private final MembershipProperties properties;
+    private final PostIdProperties idProperties;
+    private final Cache<Integer, Boolean> missing;
+    private final Timer rebuilds;
+    private final Counter skippedReads;
+    private final Counter skippedFetches;
+    private volatile BloomFilter stored;
+    private volatile BloomFilter building;
+
+    public PostMembershipIndex(PostDao postDao, TransactionOperations transactions, MembershipProperties properties,
+                               PostIdProperties idProperties, MeterRegistry registry) {
+        this.postDao = postDao;
+        this.transactions = transactions;
+        this.properties = properties;
+        this.idProperties = idProperties;
+        this.missing = Caffeine.newBuilder()
+                .maximumSize(properties.getMissingMaximumSize())
+                .expireAfterWrite(properties.getMissingTtl())
+                .build();
+        this.rebuilds = Timer.builder("post.membership.rebuilds")
+                .description("Duration of Bloom filter rebuilds from the database")
+                .register(registry);
+        this.skippedReads = Counter.builder("post.membership.skipped")
+                .description("Lookups answered without asking the source")
+                .tag("source", "database")
+                .register(registry);
+        this.skippedFetches = Counter.builder("post.membership.skipped")
+                .description("Lookups answered without asking the source")
+                .tag("source", "external")
+                .register(registry);
+        Gauge.builder("post.membership.bloom.insertions", this, index -> index.stored == null ? 0 : index.stored.insertions())
+                .description("Post IDs added to the Bloom filter since it was built")
+                .register(registry);
+        Gauge.builder("post.membership.bloom.false.positive.rate", this, index -> index.stored == null ? 0 : index.stored.expectedFalsePositiveRate())
+                .description("Estimated share of absent post IDs the Bloom filter reports as possibly stored")
+                .register(registry);
+        Gauge.builder("post.membership.missing.size", missing, Cache::estimatedSize)
+                .description("Post IDs remembered as missing from the external API")
+                .register(registry);
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        if (properties.isEnabled()) {
+            registrar.addFixedDelayTask(new FixedDelayTask(this::rebuildQuietly, properties.getRebuildInterval(), properties.getRebuildInterval()));
+        }
+    }
+
+    /**
+     * Builds a new Bloom filter from the IDs in the database and swaps it in. IDs stored while it is being built
+     * are added to both the old and the new filter.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        rebuilds.record(() -> {
+            BloomFilter filter = new BloomFilter(Math.max(properties.getExpectedInsertions(), 2 * postDao.count()),
+                    properties.getFalsePositiveRate());
+            building = filter;
+            try {
+                transactions.executeWithoutResult(status -> {
+                    try (Stream<Integer> ids = postDao.streamIds()) {
+                        ids.forEach(filter::add);
+                    }
+                });
+                stored = filter;
+            } finally {
+                building = null;
+            }
+            log.info("Rebuilt post membership index with {} IDs", filter.insertions());
+        });
+    }
+
+    /**
+     * Tells whether the post may be in the database. False is certain, so the database read can be skipped.
+     */
+    public boolean mightBeStored(Integer id) {
+        BloomFilter filter = stored;
+        if (!properties.isEnabled() || filter == null || filter.mightContain(id)) {
+            return true;
+        }
+        skippedReads.increment();
+        return false;
+    }
+
+    /**
+     * Filters the IDs down to the ones that may be in the database.
+     */
+    public Set<Integer> filterMightBeStored(Collection<Integer> ids) {
+        return ids.stream().filter(this::mightBeStored).collect(Collectors.toSet());
+    }
+
+    /**
+     * Tells whether the external API is known not to have the post, so fetching it can be skipped.
+     */
+    public boolean isKnownMissing(Integer id) {
+        if (!properties.isEnabled() || !idProperties.isLocal(id) && missing.getIfPresent(id) == null) {
+            return false;
+        }
+        skippedFetches.increment();
+        return true;
+    }
+
+    /**
+     * Records that the external API does not have the post.
+     */
+    public void missing(Integer id) {
+        if (properties.isEnabled() && !idProperties.isLocal(id)) {
+            missing.put(id, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Records posts written to the database. Called inside the writing transaction, the IDs are added again after
+     * it commits, so a rebuild whose scan started before the commit still ends up with them.
+     */
+    public void stored(Collection<Integer> ids) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        List<Integer> added = List.copyOf(ids);
+        add(added);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(added);
+                }
+            });
+        }
+    }
+
+    private void add(List<Integer> ids) {
+        missing.invalidateAll(ids);
+        // building before stored: a rebuild sets building, then stored, then clears building, so one of the two
+        // reads sees the new filter once the rebuild has started
+        BloomFilter next = building;
+        BloomFilter current = stored;
+        for (Integer id : ids) {
+            if (current != null) {
+                current.add(id);
+            }
+            if (next != null) {
+                next.add(id);
+            }
+        }
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Rebuilding the post membership index failed", e);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package sk.pelikan.post.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import sk.pelikan.post.config.UserCacheProperties;
+import sk.pelikan.post.domain.User;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process cache of user lookups against the external API.
+ * Both found and not found answers are cached, the latter with a shorter TTL.
+ * Eviction is size based (W-TinyLFU) and statistics are published as {@code cache.*} meters tagged {@code cache=users}.
+ */
+@Component
+public class UserCache implements MeterBinder {
+    private final Cache<Integer, Optional<User>> cache;
+
+    @Autowired
+    public UserCache(UserCacheProperties properties) {
+        this(properties, Ticker.systemTicker());
+    }
+
+    UserCache(UserCacheProperties properties, Ticker ticker) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfter(new LookupExpiry(properties.getTtl(), properties.getNegativeTtl()))
+                .ticker(ticker)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached lookup for the user or invokes the loader on a miss.
+     * A {@code null} result of the loader is cached as "user not found". Exceptions thrown by the loader are
+     * propagated and nothing is cached. The loader runs outside of the cache's locks, so concurrent misses for
+     * the same user should be coalesced by the caller.
+     *
+     * @param userId the ID of the user to look up
+     * @param loader fetches the user from the external API, returns null if the user does not exist
+     * @return an Optional containing the user, or an empty Optional if the user does not exist
+     */
+    public Optional<User> get(Integer userId, Function<Integer, User> loader) {
+        Optional<User> cached = cache.getIfPresent(userId);
+        if (cached != null) {
+            return cached;
+        }
+        Optional<User> loaded = Optional.ofNullable(loader.apply(userId));
+        cache.put(userId, loaded);
+        return loaded;
+    }
+
+    /**
+     * Tells whether the user was looked up recently and did not exist, without asking the external API. Reads the
+     * cache quietly, so these probes do not count as hits or misses of the user lookups.
+     *
+     * @param userId the ID of the user
+     * @return true if a cached lookup found no such user, false if the user exists or was not looked up
+     */
+    public boolean isKnownMissing(Integer userId) {
+        Optional<User> cached = cache.policy().getIfPresentQuietly(userId);
+        return cached != null && cached.isEmpty();
+    }
+
+    /**
+     * Records a user known to exist, for example one seen by a bulk fetch of all users.
+     *
+     * @param user the existing user
+     */
+    public void put(User user) {
+        cache.put(user.getId(), Optional.of(user));
+    }
+
+    public void invalidate(Integer userId) {
+        cache.invalidate(userId);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "users");
+    }
+
+    private static class LookupExpiry implements Expiry<Integer, Optional<User>> {
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        LookupExpiry(Duration ttl, Duration negativeTtl) {
+            this.ttlNanos = ttl.toNanos();
+            this.negativeTtlNanos = negativeTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(Integer key, Optional<User> value, long currentTime) {
+            return value.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Integer key, Optional<User> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Integer key, Optional<User> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
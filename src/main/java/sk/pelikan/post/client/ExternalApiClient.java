@@ -0,0 +1,142 @@
+package sk.pelikan.post.client;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriTemplate;
+import sk.pelikan.post.config.ExternalApiProperties;
+import sk.pelikan.post.domain.Post;
+import sk.pelikan.post.domain.User;
+import sk.pelikan.post.exception.ExternalApiException;
+import sk.pelikan.post.exception.ExternalApiUnavailableException;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Client of the external posts API (jsonplaceholder compatible).
+ * A 404 answer is reported as a missing resource, any other failure as ExternalApiException, or as
+ * ExternalApiUnavailableException when the {@link ExternalApiGuard} rejects the call without making it.
+ * Every request made is timed as {@code post.external.requests}, tagged by operation and outcome.
+ * URIs are expanded from templates parsed once at startup from {@code post.external.base-url} and
+ * {@code post.external.paths}, instead of being parsed by RestTemplate on every call.
+ */
+@Component
+public class ExternalApiClient {
+    private final RestTemplate restTemplate;
+    private final UriTemplate postUri;
+    private final UriTemplate userUri;
+    private final UriTemplate postPageUri;
+    private final URI usersUri;
+    private final ExternalApiGuard guard;
+    private final MeterRegistry registry;
+
+    public ExternalApiClient(RestTemplate restTemplate, ExternalApiProperties properties, ExternalApiGuard guard,
+                             MeterRegistry registry) {
+        this.restTemplate = restTemplate;
+        String baseUrl = properties.getBaseUrl();
+        ExternalApiProperties.Paths paths = properties.getPaths();
+        this.postUri = new UriTemplate(baseUrl + paths.getPost());
+        this.userUri = new UriTemplate(baseUrl + paths.getUser());
+        this.postPageUri = new UriTemplate(baseUrl + paths.getPostPage());
+        this.usersUri = URI.create(baseUrl + paths.getUsers());
+        this.guard = guard;
+        this.registry = registry;
+    }
+
+    /**
+     * Fetches a single post.
+     *
+     * @param id the ID of the post
+     * @return the post, or null if the external API does not know it
+     */
+    public Post fetchPost(Integer id) {
+        return call("fetchPost", () -> getOrNull(postUri.expand(id), Post.class),
+                "Failed to fetch post from external API with ID: " + id);
+    }
+
+    /**
+     * Fetches a single user.
+     *
+     * @param id the ID of the user
+     * @return the user, or null if the external API does not know it
+     */
+    public User fetchUser(Integer id) {
+        return call("fetchUser", () -> getOrNull(userUri.expand(id), User.class),
+                "Failed to verify user with ID: " + id);
+    }
+
+    /**
+     * Fetches one page of all posts ordered by ID.
+     *
+     * @param page the 1-based page number
+     * @param size the page size
+     * @return the posts of the page, an empty list past the last page
+     */
+    public List<Post> fetchPostPage(int page, int size) {
+        Post[] posts = call("fetchPostPage", () -> restTemplate.getForObject(postPageUri.expand(page, size), Post[].class),
+                "Failed to fetch page " + page + " of posts from external API");
+        return posts == null ? List.of() : Arrays.asList(posts);
+    }
+
+    /**
+     * Fetches all users.
+     *
+     * @return all users known to the external API
+     */
+    public List<User> fetchUsers() {
+        User[] users = call("fetchUsers", () -> restTemplate.getForObject(usersUri, User[].class),
+                "Failed to fetch users from external API");
+        return users == null ? List.of() : Arrays.asList(users);
+    }
+
+    private <T> T getOrNull(URI url, Class<T> type) {
+        try {
+            return restTemplate.getForObject(url, type);
+        } catch (HttpClientErrorException.NotFound e) {
+            return null;
+        }
+    }
+
+    private <T> T call(String operation, Supplier<T> request, String failureMessage) {
+        try {
+            return guard.call(() -> timed(operation, request));
+        } catch (CallNotPermittedException | BulkheadFullException e) {
+            throw new ExternalApiUnavailableException(failureMessage, e);
+        } catch (Exception e) {
+            throw new ExternalApiException(failureMessage, e);
+        }
+    }
+
+    private <T> T timed(String operation, Supplier<T> request) {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            T result = request.get();
+            outcome = result == null ? "not_found" : "success";
+            return result;
+        } catch (HttpStatusCodeException e) {
+            outcome = e.getStatusCode().is4xxClientError() ? "client_error" : "server_error";
+            throw e;
+        } catch (ResourceAccessException e) {
+            outcome = "io_error";
+            throw e;
+        } finally {
+            Timer.builder("post.external.requests")
+                    .description("Requests made to the external API")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .register(registry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package sk.pelikan.post.client;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedRetryMetrics;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import sk.pelikan.post.concurrent.RetryBudget;
+import sk.pelikan.post.config.ExternalApiProperties;
+
+import java.util.function.Supplier;
+
+/**
+ * Protects the service from a slow or failing external API. Every call is retried with jittered exponential backoff
+ * while the retry budget allows it, each attempt passes the circuit breaker, which fails fast while the external API
+ * keeps failing, and then the bulkhead, which caps the number of concurrent calls.
+ * Client errors (4xx other than 429) are answers, not failures, and are neither retried nor counted by the breaker.
+ */
+@Component
+public class ExternalApiGuard implements MeterBinder {
+    private static final String NAME = "external-api";
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final RetryRegistry retryRegistry;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final Retry retry;
+    private final RetryBudget retryBudget;
+
+    public ExternalApiGuard(ExternalApiProperties properties) {
+        ExternalApiProperties.CircuitBreaker breakerProperties = properties.getCircuitBreaker();
+        ExternalApiProperties.Retry retryProperties = properties.getRetry();
+        this.retryBudget = new RetryBudget(retryProperties.getBudgetRatio(), retryProperties.getBudgetMaxRetries());
+        this.circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(breakerProperties.getFailureRateThreshold())
+                .slowCallDurationThreshold(breakerProperties.getSlowCallDuration())
+                .slowCallRateThreshold(breakerProperties.getSlowCallRateThreshold())
+                .slidingWindowSize(breakerProperties.getSlidingWindowSize())
+                .minimumNumberOfCalls(breakerProperties.getMinimumNumberOfCalls())
+                .waitDurationInOpenState(breakerProperties.getWaitInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(breakerProperties.getPermittedCallsInHalfOpenState())
+                .recordException(ExternalApiGuard::isFailure)
+                .build());
+        this.bulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(properties.getBulkhead().getMaxConcurrentCalls())
+                .maxWaitDuration(properties.getBulkhead().getMaxWait())
+                .build());
+        this.retryRegistry = RetryRegistry.of(RetryConfig.custom()
+                .maxAttempts(retryProperties.getMaxAttempts())
+                .intervalFunction(IntervalFunction.ofExponentialRandomBackoff(retryProperties.getInitialBackoff(),
+                        retryProperties.getBackoffMultiplier(), retryProperties.getJitter()))
+                .retryOnException(e -> isRetryable(e) && retryBudget.tryAcquireRetry())
+                .build());
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(NAME);
+        this.bulkhead = bulkheadRegistry.bulkhead(NAME);
+        this.retry = retryRegistry.retry(NAME);
+        // The retry predicate is consulted after the last attempt too, give back the token it took there
+        this.retry.getEventPublisher().onError(event -> retryBudget.release());
+    }
+
+    /**
+     * Runs a call to the external API.
+     *
+     * @param call the call
+     * @return the result of the call
+     * @throws io.github.resilience4j.circuitbreaker.CallNotPermittedException if the circuit is open
+     * @throws io.github.resilience4j.bulkhead.BulkheadFullException           if too many calls are in flight
+     */
+    public <T> T call(Supplier<T> call) {
+        retryBudget.recordCall();
+        return Retry.decorateSupplier(retry,
+                CircuitBreaker.decorateSupplier(circuitBreaker,
+                        Bulkhead.decorateSupplier(bulkhead, call))).get();
+    }
+
+    public CircuitBreaker.State getState() {
+        return circuitBreaker.getState();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry).bindTo(registry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheadRegistry).bindTo(registry);
+        TaggedRetryMetrics.ofRetryRegistry(retryRegistry).bindTo(registry);
+        Gauge.builder("post.external.retry.budget", retryBudget, RetryBudget::availableRetries)
+                .description("Retries currently allowed by the retry budget")
+                .register(registry);
+        FunctionCounter.builder("post.external.retry.budget.exhausted", retryBudget, RetryBudget::rejectedCount)
+                .description("Retries skipped because the retry budget was exhausted")
+                .register(registry);
+    }
+
+    private static boolean isFailure(Throwable e) {
+        return !(e instanceof HttpClientErrorException) || e instanceof HttpClientErrorException.TooManyRequests;
+    }
+
+    private static boolean isRetryable(Throwable e) {
+        return e instanceof ResourceAccessException
+                || e instanceof HttpServerErrorException
+                || e instanceof HttpClientErrorException.TooManyRequests;
+    }
+}
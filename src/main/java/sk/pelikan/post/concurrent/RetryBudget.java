@@ -0,0 +1,60 @@
+package sk.pelikan.post.concurrent;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits retries to a fraction of the calls made. Every call deposits {@code retryRatio} of a token, every retry
+ * withdraws a whole token, and the balance is capped at {@code maxRetries} tokens. While an upstream fails
+ * persistently the budget drains and calls fail after their first attempt instead of multiplying the load.
+ */
+public class RetryBudget {
+    private static final long TOKEN = 1000;
+
+    private final long depositPerCall;
+    private final long maxBalance;
+    private final AtomicLong balance;
+    private final LongAdder rejected = new LongAdder();
+
+    public RetryBudget(double retryRatio, int maxRetries) {
+        this.depositPerCall = Math.round(retryRatio * TOKEN);
+        this.maxBalance = maxRetries * TOKEN;
+        this.balance = new AtomicLong(maxBalance);
+    }
+
+    public void recordCall() {
+        balance.accumulateAndGet(depositPerCall, (current, deposit) -> Math.min(maxBalance, current + deposit));
+    }
+
+    /**
+     * Withdraws the cost of one retry if the budget allows it.
+     *
+     * @return true if the retry may be made
+     */
+    public boolean tryAcquireRetry() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < TOKEN) {
+                rejected.increment();
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - TOKEN));
+        return true;
+    }
+
+    /**
+     * Returns a token taken by {@link #tryAcquireRetry()} for a retry that was not made after all.
+     */
+    public void release() {
+        balance.accumulateAndGet(TOKEN, (current, token) -> Math.min(maxBalance, current + token));
+    }
+
+    public double availableRetries() {
+        return balance.get() / (double) TOKEN;
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+}
@@ -0,0 +1,101 @@
+package sk.pelikan.post.concurrent;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import sk.pelikan.post.exception.ExternalApiException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key into a single execution.
+ * The first caller for a key runs the call; callers arriving while it is in flight wait up to {@code maxWait}
+ * for its outcome instead of repeating the call. Suppressed duplicates are counted.
+ *
+ * @param <K> the key type
+ * @param <V> the result type, null results are allowed
+ */
+public class SingleFlight<K, V> implements MeterBinder {
+    private final String name;
+    private final Duration maxWait;
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder suppressed = new LongAdder();
+
+    public SingleFlight(String name, Duration maxWait) {
+        this.name = name;
+        this.maxWait = maxWait;
+    }
+
+    /**
+     * Runs the call for the key unless an identical call is already in flight, in which case its result is shared.
+     * Exceptions thrown by the call are rethrown to every waiting caller.
+     * Throws ExternalApiException if the in-flight call does not finish within the configured wait.
+     *
+     * @param key  identifies identical calls
+     * @param call the call to run
+     * @return the result of the call
+     */
+    public V execute(K key, Supplier<V> call) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            suppressed.increment();
+            return await(key, existing);
+        }
+        try {
+            V value = call.get();
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    public long suppressedCount() {
+        return suppressed.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("post.singleflight.suppressed", suppressed, LongAdder::doubleValue)
+                .description("Calls that joined an identical in-flight call instead of executing it")
+                .tag("name", name)
+                .register(registry);
+        Gauge.builder("post.singleflight.in.flight", inFlight, ConcurrentMap::size)
+                .description("Distinct keys with a call currently in flight")
+                .tag("name", name)
+                .register(registry);
+    }
+
+    private V await(K key, CompletableFuture<V> future) {
+        try {
+            return future.get(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new ExternalApiException("In-flight " + name + " call failed for key: " + key, cause);
+        } catch (TimeoutException e) {
+            throw new ExternalApiException("Timed out waiting for in-flight " + name + " call for key: " + key, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExternalApiException("Interrupted while waiting for in-flight " + name + " call for key: " + key, e);
+        }
+    }
+}
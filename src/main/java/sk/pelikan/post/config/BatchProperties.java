@@ -0,0 +1,19 @@
+package sk.pelikan.post.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "post.batch")
+public class BatchProperties {
+    /**
+     * Maximum number of items accepted by a single batch request.
+     */
+    private int maxSize = 1000;
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+}
@@ -0,0 +1,317 @@
+package sk.pelikan.post.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "post.external")
+public class ExternalApiProperties {
+    /**
+     * Base URL of the external posts API, without a trailing slash. Point it to a local stub for tests and load tests.
+     */
+    private String baseUrl = "https://jsonplaceholder.typicode.com";
+    /**
+     * Maximum time to establish a connection to the external API.
+     */
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    /**
+     * Maximum time to wait for a response from the external API once the request was sent.
+     */
+    private Duration readTimeout = Duration.ofSeconds(5);
+    /**
+     * How long a request waits for an identical in-flight external call started by another request.
+     */
+    private Duration coalesceTimeout = Duration.ofSeconds(5);
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker();
+    private final Bulkhead bulkhead = new Bulkhead();
+    private final Retry retry = new Retry();
+    private final Paths paths = new Paths();
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public void setBaseUrl(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public Duration getReadTimeout() {
+        return readTimeout;
+    }
+
+    public void setReadTimeout(Duration readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    public Duration getCoalesceTimeout() {
+        return coalesceTimeout;
+    }
+
+    public void setCoalesceTimeout(Duration coalesceTimeout) {
+        this.coalesceTimeout = coalesceTimeout;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public Bulkhead getBulkhead() {
+        return bulkhead;
+    }
+
+    public Retry getRetry() {
+        return retry;
+    }
+
+    public Paths getPaths() {
+        return paths;
+    }
+
+    /**
+     * URI templates of the external API resources, relative to the base URL.
+     */
+    public static class Paths {
+        /**
+         * A single post, with an {id} variable.
+         */
+        private String post = "/posts/{id}";
+        /**
+         * A single user, with an {id} variable.
+         */
+        private String user = "/users/{id}";
+        /**
+         * One page of all posts, with {page} and {limit} variables.
+         */
+        private String postPage = "/posts?_page={page}&_limit={limit}";
+        /**
+         * All users.
+         */
+        private String users = "/users";
+
+        public String getPost() {
+            return post;
+        }
+
+        public void setPost(String post) {
+            this.post = post;
+        }
+
+        public String getUser() {
+            return user;
+        }
+
+        public void setUser(String user) {
+            this.user = user;
+        }
+
+        public String getPostPage() {
+            return postPage;
+        }
+
+        public void setPostPage(String postPage) {
+            this.postPage = postPage;
+        }
+
+        public String getUsers() {
+            return users;
+        }
+
+        public void setUsers(String users) {
+            this.users = users;
+        }
+    }
+
+    public static class CircuitBreaker {
+        /**
+         * Failure rate in percent at which the circuit opens.
+         */
+        private float failureRateThreshold = 50;
+        /**
+         * Calls slower than this count as slow calls.
+         */
+        private Duration slowCallDuration = Duration.ofSeconds(3);
+        /**
+         * Slow call rate in percent at which the circuit opens.
+         */
+        private float slowCallRateThreshold = 80;
+        /**
+         * Number of most recent calls the rates are computed from.
+         */
+        private int slidingWindowSize = 20;
+        /**
+         * Minimum number of calls before the rates are evaluated.
+         */
+        private int minimumNumberOfCalls = 10;
+        /**
+         * How long the circuit stays open and fails calls fast before probing the external API again.
+         */
+        private Duration waitInOpenState = Duration.ofSeconds(10);
+        /**
+         * Number of probe calls let through while half-open.
+         */
+        private int permittedCallsInHalfOpenState = 3;
+
+        public float getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public void setFailureRateThreshold(float failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        public Duration getSlowCallDuration() {
+            return slowCallDuration;
+        }
+
+        public void setSlowCallDuration(Duration slowCallDuration) {
+            this.slowCallDuration = slowCallDuration;
+        }
+
+        public float getSlowCallRateThreshold() {
+            return slowCallRateThreshold;
+        }
+
+        public void setSlowCallRateThreshold(float slowCallRateThreshold) {
+            this.slowCallRateThreshold = slowCallRateThreshold;
+        }
+
+        public int getSlidingWindowSize() {
+            return slidingWindowSize;
+        }
+
+        public void setSlidingWindowSize(int slidingWindowSize) {
+            this.slidingWindowSize = slidingWindowSize;
+        }
+
+        public int getMinimumNumberOfCalls() {
+            return minimumNumberOfCalls;
+        }
+
+        public void setMinimumNumberOfCalls(int minimumNumberOfCalls) {
+            this.minimumNumberOfCalls = minimumNumberOfCalls;
+        }
+
+        public Duration getWaitInOpenState() {
+            return waitInOpenState;
+        }
+
+        public void setWaitInOpenState(Duration waitInOpenState) {
+            this.waitInOpenState = waitInOpenState;
+        }
+
+        public int getPermittedCallsInHalfOpenState() {
+            return permittedCallsInHalfOpenState;
+        }
+
+        public void setPermittedCallsInHalfOpenState(int permittedCallsInHalfOpenState) {
+            this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState;
+        }
+    }
+
+    public static class Bulkhead {
+        /**
+         * Maximum number of concurrent calls to the external API.
+         */
+        private int maxConcurrentCalls = 50;
+        /**
+         * How long a call waits for a free slot before it is rejected.
+         */
+        private Duration maxWait = Duration.ofMillis(50);
+
+        public int getMaxConcurrentCalls() {
+            return maxConcurrentCalls;
+        }
+
+        public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+            this.maxConcurrentCalls = maxConcurrentCalls;
+        }
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+    }
+
+    public static class Retry {
+        /**
+         * Maximum number of attempts per call, including the first one.
+         */
+        private int maxAttempts = 3;
+        /**
+         * Backoff before the first retry, growing by the multiplier for later retries.
+         */
+        private Duration initialBackoff = Duration.ofMillis(100);
+        private double backoffMultiplier = 2;
+        /**
+         * Random spread applied to each backoff, 0.5 means +-50%.
+         */
+        private double jitter = 0.5;
+        /**
+         * Retries allowed per call made, averaged over time.
+         */
+        private double budgetRatio = 0.1;
+        /**
+         * Maximum number of retries that can be saved up in the budget.
+         */
+        private int budgetMaxRetries = 20;
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public Duration getInitialBackoff() {
+            return initialBackoff;
+        }
+
+        public void setInitialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+        }
+
+        public double getBackoffMultiplier() {
+            return backoffMultiplier;
+        }
+
+        public void setBackoffMultiplier(double backoffMultiplier) {
+            this.backoffMultiplier = backoffMultiplier;
+        }
+
+        public double getJitter() {
+            return jitter;
+        }
+
+        public void setJitter(double jitter) {
+            this.jitter = jitter;
+        }
+
+        public double getBudgetRatio() {
+            return budgetRatio;
+        }
+
+        public void setBudgetRatio(double budgetRatio) {
+            this.budgetRatio = budgetRatio;
+        }
+
+        public int getBudgetMaxRetries() {
+            return budgetMaxRetries;
+        }
+
+        public void setBudgetMaxRetries(int budgetMaxRetries) {
+            this.budgetMaxRetries = budgetMaxRetries;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package sk.pelikan.post.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "post.ingest")
+public class IngestProperties {
+    /**
+     * Whether clients may create posts asynchronously by sending {@code Prefer: respond-async}.
+     */
+    private boolean enabled = false;
+    /**
+     * Maximum number of posts waiting to be written. Creates beyond it are rejected with 429.
+     */
+    private int capacity = 10000;
+    /**
+     * Maximum number of posts written by one batch insert.
+     */
+    private int batchSize = 500;
+    /**
+     * How long the status of a queued create can be looked up by its tracking ID.
+     */
+    private Duration statusTtl = Duration.ofHours(1);
+    /**
+     * Maximum number of statuses kept for lookup. Under sustained load the oldest ones are dropped before their TTL,
+     * so memory stays bounded however many posts arrive within {@code status-ttl}.
+     */
+    private long statusMaximumSize = 100_000;
+    /**
+     * How long shutdown waits for queued posts to be written.
+     */
+    private Duration drainTimeout = Duration.ofSeconds(30);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getStatusTtl() {
+        return statusTtl;
+    }
+
+    public void setStatusTtl(Duration statusTtl) {
+        this.statusTtl = statusTtl;
+    }
+
+    public long getStatusMaximumSize() {
+        return statusMaximumSize;
+    }
+
+    public void setStatusMaximumSize(long statusMaximumSize) {
+        this.statusMaximumSize = statusMaximumSize;
+    }
+
+    public Duration getDrainTimeout() {
+        return drainTimeout;
+    }
+
+    public void setDrainTimeout(Duration drainTimeout) {
+        this.drainTimeout = drainTimeout;
+    }
+}
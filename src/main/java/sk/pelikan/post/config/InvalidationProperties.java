@@ -0,0 +1,83 @@
+package sk.pelikan.post.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "post.invalidation")
+public class InvalidationProperties {
+    /**
+     * Whether post changes are broadcast to the other instances over PostgreSQL LISTEN/NOTIFY, and received from
+     * them, to keep the in-memory post caches coherent. Needs PostgreSQL.
+     */
+    private boolean enabled = false;
+    /**
+     * Notification channel shared by all instances.
+     */
+    private String channel = "post_invalidation";
+    /**
+     * How long the listener waits for notifications at a time. Bounds how long stopping the listener takes.
+     */
+    private Duration pollInterval = Duration.ofMillis(500);
+    /**
+     * How often an idle listener connection is checked, so that a connection dropped without notice is noticed.
+     */
+    private Duration keepaliveInterval = Duration.ofSeconds(30);
+    /**
+     * Delay before reconnecting after the listener connection failed.
+     */
+    private Duration reconnectDelay = Duration.ofSeconds(5);
+    /**
+     * Number of cached posts whose versions are checked against the database per query when resynchronizing
+     * after a (re)connect.
+     */
+    private int resyncBatchSize = 1000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public void setChannel(String channel) {
+        this.channel = channel;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    public Duration getKeepaliveInterval() {
+        return keepaliveInterval;
+    }
+
+    public void setKeepaliveInterval(Duration keepaliveInterval) {
+        this.keepaliveInterval = keepaliveInterval;
+    }
+
+    public Duration getReconnectDelay() {
+        return reconnectDelay;
+    }
+
+    public void setReconnectDelay(Duration reconnectDelay) {
+        this.reconnectDelay = reconnectDelay;
+    }
+
+    public int getResyncBatchSize() {
+        return resyncBatchSize;
+    }
+
+    public void setResyncBatchSize(int resyncBatchSize) {
+        this.resyncBatchSize = resyncBatchSize;
+    }
+}
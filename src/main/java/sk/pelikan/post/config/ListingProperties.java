@@ -0,0 +1,31 @@
+package sk.pelikan.post.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "post.listing")
+public class ListingProperties {
+    /**
+     * Page size used when the client does not ask for one.
+     */
+    private int defaultLimit = 20;
+    /**
+     * Largest page size a client may ask for, larger requests are capped.
+     */
+    private int maxLimit = 100;
+
+    public int getDefaultLimit() {
+        return defaultLimit;
+    }
+
+    public void setDefaultLimit(int defaultLimit) {
+        this.defaultLimit = defaultLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+}
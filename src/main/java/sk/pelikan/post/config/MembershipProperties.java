@@ -0,0 +1,84 @@
+package sk.pelikan.post.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "post.membership")
+public class MembershipProperties {
+    /**
+     * Whether post lookups consult the membership index. The index only knows the posts this instance wrote or
+     * saw at its last rebuild, so with several instances writing it must stay off unless their writes are
+     * propagated to each other with {@code post.invalidation.enabled}.
+     */
+    private boolean enabled = false;
+    /**
+     * Minimum number of post IDs the Bloom filter is sized for. On every rebuild it is sized for at least twice
+     * the number of stored posts.
+     */
+    private long expectedInsertions = 1_000_000;
+    /**
+     * Target share of absent IDs the Bloom filter reports as possibly stored, which then cost a database read.
+     */
+    private double falsePositiveRate = 0.01;
+    /**
+     * How often the Bloom filter is rebuilt from the database, which drops deleted IDs and resizes it.
+     */
+    private Duration rebuildInterval = Duration.ofHours(1);
+    /**
+     * Maximum number of IDs remembered as missing from the external API.
+     */
+    private long missingMaximumSize = 100_000;
+    /**
+     * How long an ID is remembered as missing from the external API before it is asked again.
+     */
+    private Duration missingTtl = Duration.ofHours(1);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getExpectedInsertions() {
+        return expectedInsertions;
+    }
+
+    public void setExpectedInsertions(long expectedInsertions) {
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    public double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    public void setFalsePositiveRate(double falsePositiveRate) {
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    public Duration getRebuildInterval() {
+        return rebuildInterval;
+    }
+
+    public void setRebuildInterval(Duration rebuildInterval) {
+        this.rebuildInterval = rebuildInterval;
+    }
+
+    public long getMissingMaximumSize() {
+        return missingMaximumSize;
+    }
+
+    public void setMissingMaximumSize(long missingMaximumSize) {
+        this.missingMaximumSize = missingMaximumSize;
+    }
+
+    public Duration getMissingTtl() {
+        return missingTtl;
+    }
+
+    public void setMissingTtl(Duration missingTtl) {
+        this.missingTtl = missingTtl;
+    }
+}
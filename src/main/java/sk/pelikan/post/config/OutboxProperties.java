@@ -0,0 +1,86 @@
+package sk.pelikan.post.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "post.outbox")
+public class OutboxProperties {
+    public enum Sink {
+        SSE, FILE
+    }
+
+    /**
+     * Where the relay publishes change events: to in-process server-sent event subscribers, or to a file.
+     */
+    private Sink sink = Sink.SSE;
+    /**
+     * File change events are appended to as JSON lines when the sink is {@code file}.
+     */
+    private Path file = Path.of("post-changes.ndjson");
+    /**
+     * Maximum number of change events published in one relay transaction.
+     */
+    private int batchSize = 500;
+    /**
+     * Delay between the end of one relay run and the start of the next one.
+     */
+    private Duration relayInterval = Duration.ofMillis(500);
+    /**
+     * How long published change events stay available to consumers resuming from an offset.
+     */
+    private Duration retention = Duration.ofDays(7);
+    /**
+     * Delay between deletions of change events older than the retention.
+     */
+    private Duration cleanupInterval = Duration.ofHours(1);
+
+    public Sink getSink() {
+        return sink;
+    }
+
+    public void setSink(Sink sink) {
+        this.sink = sink;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public void setFile(Path file) {
+        this.file = file;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getRelayInterval() {
+        return relayInterval;
+    }
+
+    public void setRelayInterval(Duration relayInterval) {
+        this.relayInterval = relayInterval;
+    }
+
+    public Duration getRetention() {
+        return retention;
+    }
+
+    public void setRetention(Duration retention) {
+        this.retention = retention;
+    }
+
+    public Duration getCleanupInterval() {
+        return cleanupInterval;
+    }
+
+    public void setCleanupInterval(Duration cleanupInterval) {
+        this.cleanupInterval = cleanupInterval;
+    }
+}
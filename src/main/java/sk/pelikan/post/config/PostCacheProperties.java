@@ -0,0 +1,47 @@
+package sk.pelikan.post.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "post.post-cache")
+public class PostCacheProperties {
+    /**
+     * Maximum number of posts kept in memory.
+     */
+    private long maximumSize = 10_000;
+    /**
+     * Upper bound on how long a post is served from memory without being re-read from the database.
+     */
+    private Duration ttl = Duration.ofMinutes(5);
+    /**
+     * How long an invalidation keeps reads of the post that started before it from caching what they read, and
+     * how long a version notified by another instance keeps older versions of the post out of the cache. Must
+     * exceed the slowest read of a post and the replication lag of the replicas.
+     */
+    private Duration staleGuard = Duration.ofMinutes(1);
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public Duration getStaleGuard() {
+        return staleGuard;
+    }
+
+    public void setStaleGuard(Duration staleGuard) {
+        this.staleGuard = staleGuard;
+    }
+}
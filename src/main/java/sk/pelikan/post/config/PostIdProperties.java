@@ -0,0 +1,43 @@
+package sk.pelikan.post.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "post.id")
+public class PostIdProperties {
+    /**
+     * First ID handed out to locally created posts. Everything below is reserved for posts imported from the
+     * external API under their external IDs.
+     */
+    private int localStart = 1_000_000_000;
+    /**
+     * Number of IDs reserved per sequence call (pooled-lo optimizer). Must match the increment of the database
+     * sequence, which is created with this value.
+     */
+    private int allocationSize = 50;
+
+    public int getLocalStart() {
+        return localStart;
+    }
+
+    public void setLocalStart(int localStart) {
+        this.localStart = localStart;
+    }
+
+    public int getAllocationSize() {
+        return allocationSize;
+    }
+
+    public void setAllocationSize(int allocationSize) {
+        this.allocationSize = allocationSize;
+    }
+
+    /**
+     * Tells whether the ID belongs to the range of locally created posts, which the external API never serves.
+     *
+     * @param id the ID of a post
+     * @return true if the ID was created locally
+     */
+    public boolean isLocal(Integer id) {
+        return id != null && id >= localStart;
+    }
+}
@@ -0,0 +1,124 @@
+package sk.pelikan.post.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+@ConfigurationProperties(prefix = "post.rate-limit")
+public class RateLimitProperties {
+    /**
+     * Whether requests are rate limited.
+     */
+    private boolean enabled = false;
+    /**
+     * Request header identifying the client. Only values listed in {@code api-keys} are trusted; requests without a
+     * listed key are limited by remote address, so a client cannot reset its limit by sending a new value.
+     */
+    private String clientHeader = "X-API-Key";
+    /**
+     * API keys that get a limit of their own. Empty limits every client by remote address.
+     */
+    private Set<String> apiKeys = new HashSet<>();
+    /**
+     * Maximum number of buckets kept per scope, the least recently used ones are dropped beyond it.
+     */
+    private long maximumBuckets = 100_000;
+    /**
+     * How long an unused bucket is kept. Must exceed the time a bucket takes to refill, a dropped bucket starts
+     * full again.
+     */
+    private Duration idleTimeout = Duration.ofMinutes(10);
+    /**
+     * Limits per client and endpoint, keyed by the kebab-cased name of the handler method, e.g. get-post.
+     * Endpoints without a limit are not limited.
+     */
+    private final Map<String, Limit> endpoints = new HashMap<>();
+    /**
+     * Limit of posts created per user, across all clients. Unset means no limit. A batch holding more posts of one
+     * user than its capacity is rejected with 413, as it would never fit.
+     */
+    private Limit userWrites;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getClientHeader() {
+        return clientHeader;
+    }
+
+    public void setClientHeader(String clientHeader) {
+        this.clientHeader = clientHeader;
+    }
+
+    public Set<String> getApiKeys() {
+        return apiKeys;
+    }
+
+    public void setApiKeys(Set<String> apiKeys) {
+        this.apiKeys = apiKeys;
+    }
+
+    public long getMaximumBuckets() {
+        return maximumBuckets;
+    }
+
+    public void setMaximumBuckets(long maximumBuckets) {
+        this.maximumBuckets = maximumBuckets;
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public Map<String, Limit> getEndpoints() {
+        return endpoints;
+    }
+
+    public Limit getUserWrites() {
+        return userWrites;
+    }
+
+    public void setUserWrites(Limit userWrites) {
+        this.userWrites = userWrites;
+    }
+
+    public static class Limit {
+        /**
+         * Number of requests that may be made at once after a quiet period.
+         */
+        private int capacity = 20;
+        /**
+         * Sustained number of requests per second.
+         */
+        private double refillPerSecond = 10;
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public double getRefillPerSecond() {
+            return refillPerSecond;
+        }
+
+        public void setRefillPerSecond(double refillPerSecond) {
+            this.refillPerSecond = refillPerSecond;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package sk.pelikan.post.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "post.replicas")
+public class ReplicaProperties {
+    /**
+     * Whether read-only transactions are routed to the replicas. The primary is configured by spring.datasource.
+     */
+    private boolean enabled = false;
+    /**
+     * Connection pools of the read replicas, each bound like spring.datasource.hikari, e.g.
+     * {@code post.replicas.instances[0].jdbc-url} or {@code post.replicas.instances[0].maximum-pool-size}.
+     */
+    private List<HikariConfig> instances = new ArrayList<>();
+    /**
+     * Delay between connection checks of the replicas. Replicas failing the check get no reads until they pass.
+     */
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+    /**
+     * How long reads of a post or of a user's posts go to the primary after they were written, so a client sees its
+     * own writes regardless of replication lag.
+     */
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<HikariConfig> getInstances() {
+        return instances;
+    }
+
+    public void setInstances(List<HikariConfig> instances) {
+        this.instances = instances;
+    }
+
+    public Duration getHealthCheckInterval() {
+        return healthCheckInterval;
+    }
+
+    public void setHealthCheckInterval(Duration healthCheckInterval) {
+        this.healthCheckInterval = healthCheckInterval;
+    }
+
+    public Duration getReadYourWritesWindow() {
+        return readYourWritesWindow;
+    }
+
+    public void setReadYourWritesWindow(Duration readYourWritesWindow) {
+        this.readYourWritesWindow = readYourWritesWindow;
+    }
+}
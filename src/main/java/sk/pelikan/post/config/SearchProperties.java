@@ -0,0 +1,33 @@
+package sk.pelikan.post.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "post.search")
+public class SearchProperties {
+    /**
+     * PostgreSQL text search configuration used for stemming and stop words. It is baked into the generated
+     * search column when migration V2 creates it, changing it later requires a migration re-creating the column.
+     */
+    private String textSearchConfig = "english";
+    /**
+     * Maximum number of matching posts ranked per PostgreSQL search. Bounds the latency of terms that match many
+     * posts, at the cost of ranking only the first matches the index returns for them.
+     */
+    private int maxCandidates = 10_000;
+
+    public String getTextSearchConfig() {
+        return textSearchConfig;
+    }
+
+    public void setTextSearchConfig(String textSearchConfig) {
+        this.textSearchConfig = textSearchConfig;
+    }
+
+    public int getMaxCandidates() {
+        return maxCandidates;
+    }
+
+    public void setMaxCandidates(int maxCandidates) {
+        this.maxCandidates = maxCandidates;
+    }
+}
@@ -0,0 +1,69 @@
+package sk.pelikan.post.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "post.sync")
+public class SyncProperties {
+    /**
+     * Whether posts and users are periodically pulled from the external API.
+     */
+    private boolean enabled = false;
+    /**
+     * Delay between application start and the first sync. Zero runs it right at startup.
+     */
+    private Duration initialDelay = Duration.ZERO;
+    /**
+     * Delay between the end of one sync and the start of the next one.
+     */
+    private Duration interval = Duration.ofHours(1);
+    /**
+     * Number of posts requested per page.
+     */
+    private int pageSize = 100;
+    /**
+     * Number of pages fetched concurrently.
+     */
+    private int parallelism = 4;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getInitialDelay() {
+        return initialDelay;
+    }
+
+    public void setInitialDelay(Duration initialDelay) {
+        this.initialDelay = initialDelay;
+    }
+
+    public Duration getInterval() {
+        return interval;
+    }
+
+    public void setInterval(Duration interval) {
+        this.interval = interval;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+}
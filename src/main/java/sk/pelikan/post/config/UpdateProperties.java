@@ -0,0 +1,20 @@
+package sk.pelikan.post.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "post.update")
+public class UpdateProperties {
+    /**
+     * Whether updating a post that is not stored locally first imports it from the external API.
+     * When disabled such updates answer 404.
+     */
+    private boolean importMissing = false;
+
+    public boolean isImportMissing() {
+        return importMissing;
+    }
+
+    public void setImportMissing(boolean importMissing) {
+        this.importMissing = importMissing;
+    }
+}
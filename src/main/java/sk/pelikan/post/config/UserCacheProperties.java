@@ -0,0 +1,45 @@
+package sk.pelikan.post.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "post.user-cache")
+public class UserCacheProperties {
+    /**
+     * Maximum number of user lookups kept in memory, found and not found combined.
+     */
+    private long maximumSize = 10_000;
+    /**
+     * How long a verified user is trusted before the external API is asked again.
+     */
+    private Duration ttl = Duration.ofMinutes(10);
+    /**
+     * How long a "user not found" answer is remembered. Kept short so newly created users become usable quickly.
+     */
+    private Duration negativeTtl = Duration.ofSeconds(30);
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public Duration getNegativeTtl() {
+        return negativeTtl;
+    }
+
+    public void setNegativeTtl(Duration negativeTtl) {
+        this.negativeTtl = negativeTtl;
+    }
+}
@@ -0,0 +1,57 @@
+package sk.pelikan.post.controller;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import sk.pelikan.post.config.ListingProperties;
+import sk.pelikan.post.domain.PostChangePage;
+import sk.pelikan.post.exception.ChangeOffsetExpiredException;
+import sk.pelikan.post.outbox.PostOutbox;
+import sk.pelikan.post.outbox.SsePostChangeSink;
+
+/**
+ * Change events of posts, for consumers that would otherwise poll single posts. Consumers resume from the last
+ * offset they processed through {@code GET /posts/changes?since=}, and may follow new events live through the
+ * server-sent event stream.
+ */
+@RestController
+@RequestMapping("/posts/changes")
+public class PostChangeController {
+    private final PostOutbox outbox;
+    private final ListingProperties listingProperties;
+    private final SsePostChangeSink sseSink;
+
+    public PostChangeController(PostOutbox outbox, ListingProperties listingProperties, ObjectProvider<SsePostChangeSink> sseSink) {
+        this.outbox = outbox;
+        this.listingProperties = listingProperties;
+        this.sseSink = sseSink.getIfAvailable();
+    }
+
+    @GetMapping
+    public ResponseEntity<PostChangePage> listChanges(@RequestParam(defaultValue = "0") long since,
+                                                      @RequestParam(required = false) Integer limit) {
+        if (since < 0 || limit != null && limit < 1) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        int pageSize = limit == null ? listingProperties.getDefaultLimit() : Math.min(limit, listingProperties.getMaxLimit());
+        try {
+            return ResponseEntity.ok(outbox.changesSince(since, pageSize));
+        } catch (ChangeOffsetExpiredException e) {
+            return new ResponseEntity<>(HttpStatus.GONE);
+        }
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamChanges() {
+        if (sseSink == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(sseSink.subscribe());
+    }
+}
@@ -1,68 +1,354 @@
 package sk.pelikan.post.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import sk.pelikan.post.config.BatchProperties;
+import sk.pelikan.post.config.ListingProperties;
+import sk.pelikan.post.domain.BatchItemResult;
+import sk.pelikan.post.domain.IngestStatus;
 import sk.pelikan.post.domain.Post;
+import sk.pelikan.post.domain.PostPage;
+import sk.pelikan.post.domain.PostSummary;
 import sk.pelikan.post.exception.ExternalApiException;
+import sk.pelikan.post.exception.ExternalApiUnavailableException;
+import sk.pelikan.post.exception.IngestQueueFullException;
+import sk.pelikan.post.exception.InvalidCursorException;
 import sk.pelikan.post.exception.PostNotFoundException;
+import sk.pelikan.post.exception.PostVersionConflictException;
+import sk.pelikan.post.exception.RateLimitExceededException;
 import sk.pelikan.post.exception.UserNotFoundException;
+import sk.pelikan.post.ingest.PostIngestQueue;
+import sk.pelikan.post.ratelimit.RateLimiter;
 import sk.pelikan.post.service.PostService;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/posts")
 public class PostController {
+    private static final String RESPOND_ASYNC = "respond-async";
+
     private final PostService postService;
+    private final BatchProperties batchProperties;
+    private final ListingProperties listingProperties;
+    private final ObjectWriter exportWriter;
+    private final PostIngestQueue ingestQueue;
+    private final RateLimiter rateLimiter;
 
-    public PostController(PostService postService) {
+    public PostController(PostService postService, BatchProperties batchProperties, ListingProperties listingProperties,
+                          ObjectMapper objectMapper, ObjectProvider<PostIngestQueue> ingestQueue,
+                          ObjectProvider<RateLimiter> rateLimiter) {
         this.postService = postService;
+        this.ingestQueue = ingestQueue.getIfAvailable();
+        this.rateLimiter = rateLimiter.getIfAvailable();
+        this.batchProperties = batchProperties;
+        this.listingProperties = listingProperties;
+        this.exportWriter = objectMapper.writerFor(PostSummary.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
+    /**
+     * Creates a post. With {@code Prefer: respond-async} and {@code post.ingest.enabled}, the post is only queued and
+     * 202 is returned with the tracking status, which {@link #getIngestStatus(String)} serves later. A queued post
+     * must not carry an ID or version, as the error could only be reported through the tracking status.
+     * Counts against the user's write limit either way.
+     */
     @PostMapping
-    public ResponseEntity<Post> createPost(@RequestBody Post post) {
+    public ResponseEntity<?> createPost(@RequestBody Post post,
+                                        @RequestHeader(value = "Prefer", required = false) String prefer) {
+        boolean async = ingestQueue != null && prefer != null && prefer.contains(RESPOND_ASYNC);
+        if (async && (post.getId() != null || post.getVersion() != null)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        try {
+            acquireUserWrites(List.of(post));
+        } catch (RateLimitExceededException e) {
+            return rateLimited(e);
+        }
+        if (async) {
+            return queuePost(post);
+        }
         try {
             Post result = postService.createPost(post);
-            return new ResponseEntity<>(result, HttpStatus.CREATED);
+            return new ResponseEntity<>(result, eTagHeaders(result), HttpStatus.CREATED);
         } catch (UserNotFoundException e) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        } catch (ExternalApiUnavailableException e) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
         } catch (ExternalApiException e) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    @GetMapping("/ingest/{trackingId}")
+    public ResponseEntity<IngestStatus> getIngestStatus(@PathVariable String trackingId) {
+        if (ingestQueue == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.of(ingestQueue.getStatus(trackingId));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Post> getPost(@PathVariable Integer id) {
+    public ResponseEntity<Post> getPost(@PathVariable Integer id,
+                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             Optional<Post> result = postService.getPost(id);
-            return result.map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+            if (result.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            HttpHeaders headers = eTagHeaders(result.get());
+            if (ifNoneMatch != null && headers.getETag() != null && matchesAny(ifNoneMatch, headers.getETag())) {
+                return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+            }
+            return new ResponseEntity<>(result.get(), headers, HttpStatus.OK);
         } catch (PostNotFoundException e) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        } catch (ExternalApiUnavailableException e) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
         } catch (ExternalApiException e) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    @GetMapping(params = {"userId", "!ids"})
+    public ResponseEntity<PostPage> listPosts(@RequestParam Integer userId,
+                                              @RequestParam(required = false) String after,
+                                              @RequestParam(required = false) Integer limit) {
+        if (limit != null && limit < 1) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        int pageSize = limit == null ? listingProperties.getDefaultLimit() : Math.min(limit, listingProperties.getMaxLimit());
+        try {
+            return ResponseEntity.ok(postService.listPosts(userId, after, pageSize));
+        } catch (InvalidCursorException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<PostPage> searchPosts(@RequestParam String q,
+                                                @RequestParam(required = false) Integer userId,
+                                                @RequestParam(required = false) String after,
+                                                @RequestParam(required = false) Integer limit) {
+        if (q.isBlank() || limit != null && limit < 1) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        int pageSize = limit == null ? listingProperties.getDefaultLimit() : Math.min(limit, listingProperties.getMaxLimit());
+        try {
+            return ResponseEntity.ok(postService.searchPosts(q, userId, after, pageSize));
+        } catch (InvalidCursorException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @PutMapping
-    public ResponseEntity<Post> updatePost(@RequestBody Post post) {
+    public ResponseEntity<Post> updatePost(@RequestBody Post post,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch != null && !ifMatch.trim().equals("*")) {
+            Long expectedVersion = parseVersion(ifMatch);
+            if (expectedVersion == null) {
+                return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
+            }
+            post.setVersion(expectedVersion);
+        }
         try {
             Optional<Post> result = postService.updatePost(post);
-            return result.map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+            return result.map(updated -> new ResponseEntity<>(updated, eTagHeaders(updated), HttpStatus.OK))
+                    .orElse(ResponseEntity.notFound().build());
         } catch (PostNotFoundException e) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        } catch (PostVersionConflictException e) {
+            return new ResponseEntity<>(ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT);
+        } catch (ExternalApiUnavailableException e) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
         } catch (ExternalApiException e) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    /**
+     * Deletes a post. With the optional {@code userId}, only that user's post is deleted and the delete reads that
+     * user's partition alone.
+     */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deletePost(@PathVariable Integer id) {
+    public ResponseEntity<Void> deletePost(@PathVariable Integer id, @RequestParam(required = false) Integer userId,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = null;
+        if (ifMatch != null && !ifMatch.trim().equals("*")) {
+            expectedVersion = parseVersion(ifMatch);
+            if (expectedVersion == null) {
+                return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
+            }
+        }
         try {
-            postService.deletePost(id);
+            postService.deletePost(id, userId, expectedVersion);
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
         } catch (PostNotFoundException e) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        } catch (PostVersionConflictException e) {
+            return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
+        }
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchItemResult>> createPosts(@RequestBody List<Post> posts) {
+        if (posts.size() > batchProperties.getMaxSize()) {
+            return new ResponseEntity<>(HttpStatus.PAYLOAD_TOO_LARGE);
+        }
+        try {
+            acquireUserWrites(posts);
+        } catch (RateLimitExceededException e) {
+            return rateLimited(e);
+        }
+        return ResponseEntity.ok(postService.createPosts(posts));
+    }
+
+    @GetMapping(params = {"ids", "!userId"})
+    public ResponseEntity<List<BatchItemResult>> getPosts(@RequestParam List<Integer> ids) {
+        if (ids.size() > batchProperties.getMaxSize()) {
+            return new ResponseEntity<>(HttpStatus.PAYLOAD_TOO_LARGE);
+        }
+        return ResponseEntity.ok(postService.getPosts(ids));
+    }
+
+    @PutMapping("/batch")
+    public ResponseEntity<List<BatchItemResult>> updatePosts(@RequestBody List<Post> posts) {
+        if (posts.size() > batchProperties.getMaxSize()) {
+            return new ResponseEntity<>(HttpStatus.PAYLOAD_TOO_LARGE);
+        }
+        return ResponseEntity.ok(postService.updatePosts(posts));
+    }
+
+    @DeleteMapping("/batch")
+    public ResponseEntity<List<BatchItemResult>> deletePosts(@RequestBody List<Integer> ids) {
+        if (ids.size() > batchProperties.getMaxSize()) {
+            return new ResponseEntity<>(HttpStatus.PAYLOAD_TOO_LARGE);
+        }
+        return ResponseEntity.ok(postService.deletePosts(ids));
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportPosts(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        StreamingResponseBody body = out -> {
+            try (OutputStream target = gzip ? new GZIPOutputStream(out, 8192) : out;
+                 JsonGenerator generator = exportWriter.createGenerator(target)) {
+                generator.setRootValueSeparator(null);
+                postService.exportPosts(post -> writeLine(generator, post));
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    private ResponseEntity<IngestStatus> queuePost(Post post) {
+        try {
+            IngestStatus status = ingestQueue.submit(post);
+            return ResponseEntity.accepted()
+                    .location(ServletUriComponentsBuilder.fromCurrentRequestUri()
+                            .path("/ingest/{trackingId}")
+                            .buildAndExpand(status.getTrackingId())
+                            .toUri())
+                    .header("Preference-Applied", RESPOND_ASYNC)
+                    .body(status);
+        } catch (UserNotFoundException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        } catch (IngestQueueFullException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1").build();
+        }
+    }
+
+    private void acquireUserWrites(List<Post> posts) {
+        if (rateLimiter == null) {
+            return;
+        }
+        Map<Integer, Integer> postsPerUser = new HashMap<>();
+        for (Post post : posts) {
+            if (post.getUserId() != null) {
+                postsPerUser.merge(post.getUserId(), 1, Integer::sum);
+            }
+        }
+        rateLimiter.acquireUserWrites(postsPerUser);
+    }
+
+    private static <T> ResponseEntity<T> rateLimited(RateLimitExceededException e) {
+        if (!e.isRetryable()) {
+            return new ResponseEntity<>(HttpStatus.PAYLOAD_TOO_LARGE);
+        }
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, e.getRetryAfterSeconds()).build();
+    }
+
+    private void writeLine(JsonGenerator generator, PostSummary post) {
+        try {
+            exportWriter.writeValue(generator, post);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Strong ETag of a post, derived from its version so it changes with every update.
+     */
+    private static HttpHeaders eTagHeaders(Post post) {
+        HttpHeaders headers = new HttpHeaders();
+        if (post.getVersion() != null) {
+            headers.setETag("\"" + post.getVersion() + "\"");
+        }
+        return headers;
+    }
+
+    /**
+     * Weak comparison against an If-None-Match header value.
+     */
+    private static boolean matchesAny(String ifNoneMatch, String eTag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the version from an If-Match header holding a single strong ETag.
+     *
+     * @return the version, or null if the header can never match strongly
+     */
+    private static Long parseVersion(String ifMatch) {
+        String tag = ifMatch.trim();
+        if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            return null;
+        }
+        try {
+            return Long.valueOf(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            return null;
         }
     }
-}
\ No newline at end of file
+}
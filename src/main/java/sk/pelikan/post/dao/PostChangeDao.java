@@ -0,0 +1,65 @@
+package sk.pelikan.post.dao;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+import sk.pelikan.post.domain.PostChange;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface PostChangeDao extends JpaRepository<PostChange, Long> {
+    /**
+     * Retrieves the oldest change events that have no stream offset yet and locks them, so concurrent relays
+     * wait for each other instead of publishing the same events twice.
+     *
+     * @param limit the maximum number of events to return
+     * @return the unpublished events ordered by ID
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM PostChange c WHERE c.streamOffset IS NULL ORDER BY c.id")
+    List<PostChange> findUnpublished(Limit limit);
+
+    /**
+     * Retrieves the highest stream offset assigned so far.
+     *
+     * @return the offset, or null if no event was published yet
+     */
+    @Query("SELECT MAX(c.streamOffset) FROM PostChange c")
+    Long findLastOffset();
+
+    /**
+     * Retrieves published change events after the given offset in offset order.
+     *
+     * @param since the offset to start after, 0 for the oldest retained event
+     * @param limit the maximum number of events to return
+     * @return the events
+     */
+    @Query("SELECT c FROM PostChange c WHERE c.streamOffset > :since ORDER BY c.streamOffset")
+    List<PostChange> findPublishedAfter(long since, Limit limit);
+
+    /**
+     * Retrieves the highest stream offset of the events that occurred before the given time.
+     *
+     * @param before the time
+     * @return the offset, or null if there is no such published event
+     */
+    @Query("SELECT MAX(c.streamOffset) FROM PostChange c WHERE c.occurredAt < :before")
+    Long findLastOffsetBefore(Instant before);
+
+    /**
+     * Deletes all published change events up to and including the given offset, so the retained offsets stay
+     * contiguous.
+     *
+     * @param offset the last offset to delete
+     * @return the number of deleted events
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM PostChange c WHERE c.streamOffset <= :offset")
+    int deleteUpTo(long offset);
+}
@@ -1,18 +1,158 @@
 package sk.pelikan.post.dao;
 
+import org.springframework.data.domain.Limit;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.annotation.Transactional;
 import sk.pelikan.post.domain.Post;
+import sk.pelikan.post.domain.PostSummary;
+import sk.pelikan.post.domain.PostVersion;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface PostDao extends CrudRepository<Post, Integer> {
+public interface PostDao extends CrudRepository<Post, Integer>, PostDaoCustom {
     /**
      * Retrieves a distinct list of user IDs from all posts.
      * This method is useful for identifying all unique users who have made posts.
+     * A user's posts share a partition, so the distinct user IDs of each partition are disjoint and are read from
+     * its idx_post_user_id_id index alone.
      *
      * @return a List of unique user IDs as Integer
      */
     @Query("SELECT DISTINCT p.userId FROM Post p")
     List<Integer> findByUserId();
+
+    /**
+     * Retrieves which of the given post IDs exist, without loading the posts.
+     *
+     * @param ids the IDs to check
+     * @return the subset of the IDs that exist
+     */
+    @Query("SELECT p.id FROM Post p WHERE p.id IN :ids")
+    List<Integer> findExistingIds(Collection<Integer> ids);
+
+    /**
+     * Retrieves the versions of the given posts, without loading the posts.
+     *
+     * @param ids the IDs of the posts
+     * @return the IDs and versions of the posts that exist
+     */
+    @Query("SELECT new sk.pelikan.post.domain.PostVersion(p.id, p.version) FROM Post p WHERE p.id IN :ids")
+    List<PostVersion> findVersions(Collection<Integer> ids);
+
+    /**
+     * Deletes all posts with the given IDs in a single statement.
+     *
+     * @param ids the IDs of the posts to delete
+     * @return the number of deleted posts
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Post p WHERE p.id IN :ids")
+    int deleteByIds(Collection<Integer> ids);
+
+    /**
+     * Deletes a post in a single statement. Without the user the statement probes every partition.
+     *
+     * @param id the ID of the post to delete
+     * @return the number of deleted posts, 0 if the post does not exist
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Post p WHERE p.id = :id")
+    int deleteIfPresent(Integer id);
+
+    /**
+     * Deletes a post of the given user in a single statement, which reads only that user's partition.
+     *
+     * @param id     the ID of the post to delete
+     * @param userId the user of the post
+     * @return the number of deleted posts, 0 if the user has no post with the ID
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Post p WHERE p.id = :id AND p.userId = :userId")
+    int deleteIfPresent(Integer id, Integer userId);
+
+    /**
+     * Deletes a post in a single statement if it still has the given version. Without the user the statement
+     * probes every partition.
+     *
+     * @param id      the ID of the post to delete
+     * @param version the version the post must have
+     * @return the number of deleted posts, 0 if the post does not exist or has another version
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Post p WHERE p.id = :id AND p.version = :version")
+    int deleteIfVersion(Integer id, Long version);
+
+    /**
+     * Deletes a post of the given user in a single statement if it still has the given version, reading only that
+     * user's partition.
+     *
+     * @param id      the ID of the post to delete
+     * @param userId  the user of the post
+     * @param version the version the post must have
+     * @return the number of deleted posts, 0 if the user has no post with the ID or it has another version
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Post p WHERE p.id = :id AND p.userId = :userId AND p.version = :version")
+    int deleteIfVersion(Integer id, Integer userId, Long version);
+
+    /**
+     * Tells whether the user has a post with the ID, reading only that user's partition.
+     */
+    boolean existsByIdAndUserId(Integer id, Integer userId);
+
+    /**
+     * Retrieves the next page of a user's posts ordered by ID, starting right after the given ID.
+     * The user ID prunes the query to the user's partition and the seek predicate on (user_id, id) is served by its
+     * idx_post_user_id_id index, so every page costs the same no matter how deep it is or how large the table is.
+     *
+     * @param userId  the ID of the user
+     * @param afterId the last ID of the previous page, 0 for the first page
+     * @param limit   the maximum number of posts to return
+     * @return the page of posts as read-only projections
+     */
+    @Query("SELECT new sk.pelikan.post.domain.PostSummary(p.id, p.userId, p.title, p.body) FROM Post p " +
+            "WHERE p.userId = :userId AND p.id > :afterId ORDER BY p.id")
+    List<PostSummary> findPageByUserId(Integer userId, Integer afterId, Limit limit);
+
+    /**
+     * Streams all posts ordered by ID as read-only projections.
+     * Rows are fetched from a server-side cursor in chunks of the JDBC fetch size and are never attached to the
+     * persistence context, so memory use does not depend on the table size. Must be consumed inside a transaction
+     * and closed afterwards.
+     *
+     * @return a Stream of all posts
+     */
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT new sk.pelikan.post.domain.PostSummary(p.id, p.userId, p.title, p.body) FROM Post p ORDER BY p.id")
+    Stream<PostSummary> streamAll();
+
+    /**
+     * Streams the IDs of all posts without loading the posts. Must be consumed inside a transaction and closed
+     * afterwards.
+     *
+     * @return a Stream of all post IDs
+     */
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "10000"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT p.id FROM Post p")
+    Stream<Integer> streamIds();
 }
@@ -0,0 +1,22 @@
+package sk.pelikan.post.dao;
+
+import sk.pelikan.post.domain.Post;
+
+import java.util.Optional;
+
+public interface PostDaoCustom {
+    /**
+     * Sets title and body of a post and increments its version in a single statement that also returns the
+     * updated row, so an update costs one database round trip. The post must not be loaded in the current
+     * persistence context, which would keep returning its stale state.
+     *
+     * @param id              the ID of the post
+     * @param userId          the user of the post, which restricts the update to that user's partition, or null
+     *                        if unknown, which probes every partition
+     * @param title           the new title
+     * @param body            the new body
+     * @param expectedVersion the version the post must have, or null to update any version
+     * @return the updated post, or an empty Optional if no post with the ID (and user and version) exists
+     */
+    Optional<Post> updateContent(Integer id, Integer userId, String title, String body, Long expectedVersion);
+}
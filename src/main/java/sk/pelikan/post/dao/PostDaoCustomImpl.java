@@ -0,0 +1,77 @@
+package sk.pelikan.post.dao;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.hibernate.Session;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.transaction.annotation.Transactional;
+import sk.pelikan.post.domain.Post;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Uses {@code UPDATE ... RETURNING} on PostgreSQL and a data change delta table on H2 to update and read a post
+ * with one statement. Other databases fall back to an update followed by a read. The statement is chosen by the
+ * database actually connected to, not by the configured dialect, which stays PostgreSQL when tests replace the
+ * database by an embedded one.
+ */
+class PostDaoCustomImpl implements PostDaoCustom {
+    private static final String UPDATE = "UPDATE post SET title = :title, body = :body, version = version + 1 WHERE id = :id";
+    private static final String USER_PREDICATE = " AND user_id = :userId";
+    private static final String VERSION_PREDICATE = " AND version = :version";
+    private static final String COLUMNS = "id, user_id, title, body, version";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+    private volatile DatabaseDriver database;
+
+    @Override
+    @Transactional
+    public Optional<Post> updateContent(Integer id, Integer userId, String title, String body, Long expectedVersion) {
+        String update = UPDATE + (userId == null ? "" : USER_PREDICATE) + (expectedVersion == null ? "" : VERSION_PREDICATE);
+        DatabaseDriver database = database();
+        if (database == DatabaseDriver.POSTGRESQL) {
+            return single(bind(entityManager.createNativeQuery(update + " RETURNING " + COLUMNS, Post.class),
+                    id, userId, title, body, expectedVersion));
+        }
+        if (database == DatabaseDriver.H2) {
+            return single(bind(entityManager.createNativeQuery("SELECT " + COLUMNS + " FROM FINAL TABLE (" + update + ")", Post.class),
+                    id, userId, title, body, expectedVersion));
+        }
+        if (bind(entityManager.createNativeQuery(update), id, userId, title, body, expectedVersion).executeUpdate() == 0) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(entityManager.find(Post.class, id));
+    }
+
+    private static Query bind(Query query, Integer id, Integer userId, String title, String body, Long expectedVersion) {
+        query.setParameter("id", id)
+                .setParameter("title", title)
+                .setParameter("body", body);
+        if (userId != null) {
+            query.setParameter("userId", userId);
+        }
+        if (expectedVersion != null) {
+            query.setParameter("version", expectedVersion);
+        }
+        return query;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Optional<Post> single(Query query) {
+        List<Post> posts = query.getResultList();
+        return posts.stream().findFirst();
+    }
+
+    private DatabaseDriver database() {
+        DatabaseDriver current = database;
+        if (current == null) {
+            current = entityManager.unwrap(Session.class).doReturningWork(connection ->
+                    DatabaseDriver.fromProductName(connection.getMetaData().getDatabaseProductName()));
+            database = current;
+        }
+        return current;
+    }
+}
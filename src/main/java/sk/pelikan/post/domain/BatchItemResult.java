@@ -0,0 +1,95 @@
+package sk.pelikan.post.domain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.http.HttpStatus;
+
+import java.util.Objects;
+
+/**
+ * Outcome of a single item of a batch request. The status carries the HTTP status the item would have
+ * produced as a single request.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResult {
+    private Integer id;
+    private int status;
+    private Post post;
+    private String error;
+
+    public BatchItemResult() {
+    }
+
+    public BatchItemResult(Integer id, int status, Post post, String error) {
+        this.id = id;
+        this.status = status;
+        this.post = post;
+        this.error = error;
+    }
+
+    public static BatchItemResult success(HttpStatus status, Post post) {
+        return new BatchItemResult(post.getId(), status.value(), post, null);
+    }
+
+    public static BatchItemResult success(HttpStatus status, Integer id) {
+        return new BatchItemResult(id, status.value(), null, null);
+    }
+
+    public static BatchItemResult failure(HttpStatus status, Integer id, String error) {
+        return new BatchItemResult(id, status.value(), null, error);
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public Post getPost() {
+        return post;
+    }
+
+    public void setPost(Post post) {
+        this.post = post;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchItemResult{" +
+                "id=" + id +
+                ", status=" + status +
+                ", post=" + post +
+                ", error='" + error + '\'' +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BatchItemResult that = (BatchItemResult) o;
+        return status == that.status && Objects.equals(id, that.id) && Objects.equals(post, that.post) && Objects.equals(error, that.error);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, status, post, error);
+    }
+}
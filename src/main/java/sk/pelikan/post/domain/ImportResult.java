@@ -0,0 +1,63 @@
+package sk.pelikan.post.domain;
+
+import java.util.Objects;
+
+/**
+ * Counts of what an import of external posts changed locally.
+ */
+public class ImportResult {
+    private final int inserted;
+    private final int updated;
+    private final int unchanged;
+    private final int rejected;
+
+    public ImportResult(int inserted, int updated, int unchanged, int rejected) {
+        this.inserted = inserted;
+        this.updated = updated;
+        this.unchanged = unchanged;
+        this.rejected = rejected;
+    }
+
+    public int getInserted() {
+        return inserted;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public int getUnchanged() {
+        return unchanged;
+    }
+
+    /**
+     * @return how many posts were skipped because their ID lies in the range of locally created posts
+     */
+    public int getRejected() {
+        return rejected;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportResult{" +
+                "inserted=" + inserted +
+                ", updated=" + updated +
+                ", unchanged=" + unchanged +
+                ", rejected=" + rejected +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ImportResult that = (ImportResult) o;
+        return inserted == that.inserted && updated == that.updated && unchanged == that.unchanged
+                && rejected == that.rejected;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(inserted, updated, unchanged, rejected);
+    }
+}
@@ -0,0 +1,88 @@
+package sk.pelikan.post.domain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Objects;
+
+/**
+ * State of a post created asynchronously, looked up by the tracking ID handed out when it was queued.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class IngestStatus {
+    public enum State {
+        QUEUED, CREATED, FAILED
+    }
+
+    private final String trackingId;
+    private final State state;
+    private final Integer postId;
+    private final Integer status;
+    private final String error;
+
+    public IngestStatus(String trackingId, State state, Integer postId, Integer status, String error) {
+        this.trackingId = trackingId;
+        this.state = state;
+        this.postId = postId;
+        this.status = status;
+        this.error = error;
+    }
+
+    public static IngestStatus queued(String trackingId) {
+        return new IngestStatus(trackingId, State.QUEUED, null, null, null);
+    }
+
+    public static IngestStatus of(String trackingId, BatchItemResult result) {
+        if (result.getPost() != null) {
+            return new IngestStatus(trackingId, State.CREATED, result.getPost().getId(), result.getStatus(), null);
+        }
+        return new IngestStatus(trackingId, State.FAILED, null, result.getStatus(), result.getError());
+    }
+
+    public String getTrackingId() {
+        return trackingId;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public Integer getPostId() {
+        return postId;
+    }
+
+    /**
+     * HTTP status the equivalent synchronous create would have returned, set once the post was written or rejected.
+     */
+    public Integer getStatus() {
+        return status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return "IngestStatus{" +
+                "trackingId='" + trackingId + '\'' +
+                ", state=" + state +
+                ", postId=" + postId +
+                ", status=" + status +
+                ", error='" + error + '\'' +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        IngestStatus that = (IngestStatus) o;
+        return Objects.equals(trackingId, that.trackingId) && state == that.state && Objects.equals(postId, that.postId)
+                && Objects.equals(status, that.status) && Objects.equals(error, that.error);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(trackingId, state, postId, status, error);
+    }
+}
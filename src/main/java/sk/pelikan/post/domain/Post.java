@@ -1,18 +1,37 @@
 package sk.pelikan.post.domain;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.PartitionKey;
+import sk.pelikan.post.domain.id.PostIdGenerator;
 
 import java.util.Objects;
 
 @Entity
-@Table(name = "post")
+@Table(name = "post", indexes = @Index(name = "idx_post_user_id_id", columnList = "userId, id"))
 public class Post {
+    /**
+     * Unique although the primary key of the partitioned PostgreSQL table is (id, user_id): local IDs come from
+     * the post_id_seq range and imported posts keep their external IDs below it, see V3__partition_post.sql.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(generator = "post_id")
+    @GenericGenerator(name = "post_id", type = PostIdGenerator.class)
     private Integer id;
+    /**
+     * Hash partition key of the post table, added to the WHERE clause of entity updates and deletes so that they
+     * touch a single partition. Holds the loaded value there, a changed user moves the row to its new partition.
+     */
+    @PartitionKey
+    @Column(nullable = false)
     private Integer userId;
     private String title;
     private String body;
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
 
     public Post() {
     }
@@ -24,6 +43,11 @@ public class Post {
         this.body = body;
     }
 
+    public Post(Post other) {
+        this(other.id, other.userId, other.title, other.body);
+        this.version = other.version;
+    }
+
     public Integer getId() {
         return id;
     }
@@ -56,6 +80,14 @@ public class Post {
         this.body = body;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "User{" +
@@ -63,6 +95,7 @@ public class Post {
                 ", userId='" + userId + '\'' +
                 ", title='" + title + '\'' +
                 ", body='" + body + '\'' +
+                ", version=" + version +
                 '}';
     }
 
@@ -0,0 +1,162 @@
+package sk.pelikan.post.domain;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Change event of a post, written to the outbox in the same transaction as the change itself. The stream offset
+ * is assigned by the relay when the event is published, so offsets grow in the order events become visible and
+ * consumers resuming from an offset never skip an event committed late.
+ */
+@Entity
+@Table(name = "post_change", indexes = @Index(name = "idx_post_change_stream_offset", columnList = "streamOffset", unique = true))
+public class PostChange {
+    public enum Type {
+        CREATED, IMPORTED, UPDATED, DELETED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "post_change_id")
+    @SequenceGenerator(name = "post_change_id", sequenceName = "post_change_id_seq", allocationSize = 50)
+    private Long id;
+    private Long streamOffset;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Type type;
+    @Column(nullable = false)
+    private Integer postId;
+    private Integer userId;
+    private String title;
+    private String body;
+    private Long version;
+    @Column(nullable = false)
+    private Instant occurredAt;
+
+    public PostChange() {
+    }
+
+    public PostChange(Type type, Integer postId, Integer userId, String title, String body, Long version, Instant occurredAt) {
+        this.type = type;
+        this.postId = postId;
+        this.userId = userId;
+        this.title = title;
+        this.body = body;
+        this.version = version;
+        this.occurredAt = occurredAt;
+    }
+
+    public static PostChange of(Type type, Post post, Instant occurredAt) {
+        return new PostChange(type, post.getId(), post.getUserId(), post.getTitle(), post.getBody(), post.getVersion(), occurredAt);
+    }
+
+    public static PostChange deleted(Integer postId, Instant occurredAt) {
+        return new PostChange(Type.DELETED, postId, null, null, null, null, occurredAt);
+    }
+
+    /**
+     * Unique ID of the event, stable across redeliveries, so consumers can drop duplicates.
+     */
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    @JsonProperty("offset")
+    public Long getStreamOffset() {
+        return streamOffset;
+    }
+
+    public void setStreamOffset(Long streamOffset) {
+        this.streamOffset = streamOffset;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public Integer getPostId() {
+        return postId;
+    }
+
+    public void setPostId(Integer postId) {
+        this.postId = postId;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Integer userId) {
+        this.userId = userId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public void setBody(String body) {
+        this.body = body;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Instant getOccurredAt() {
+        return occurredAt;
+    }
+
+    public void setOccurredAt(Instant occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+
+    @Override
+    public String toString() {
+        return "PostChange{" +
+                "id=" + id +
+                ", streamOffset=" + streamOffset +
+                ", type=" + type +
+                ", postId=" + postId +
+                ", version=" + version +
+                ", occurredAt=" + occurredAt +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PostChange that = (PostChange) o;
+        return Objects.equals(id, that.id) && Objects.equals(streamOffset, that.streamOffset) && type == that.type
+                && Objects.equals(postId, that.postId) && Objects.equals(userId, that.userId)
+                && Objects.equals(title, that.title) && Objects.equals(body, that.body)
+                && Objects.equals(version, that.version) && Objects.equals(occurredAt, that.occurredAt);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, streamOffset, type, postId, userId, title, body, version, occurredAt);
+    }
+}
@@ -0,0 +1,47 @@
+package sk.pelikan.post.domain;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Published change events after an offset. {@code next} is the offset to resume from, the offset of the last
+ * item, or the requested one if there were no new events.
+ */
+public class PostChangePage {
+    private final List<PostChange> items;
+    private final long next;
+
+    public PostChangePage(List<PostChange> items, long next) {
+        this.items = items;
+        this.next = next;
+    }
+
+    public List<PostChange> getItems() {
+        return items;
+    }
+
+    public long getNext() {
+        return next;
+    }
+
+    @Override
+    public String toString() {
+        return "PostChangePage{" +
+                "items=" + items +
+                ", next=" + next +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PostChangePage that = (PostChangePage) o;
+        return next == that.next && Objects.equals(items, that.items);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(items, next);
+    }
+}
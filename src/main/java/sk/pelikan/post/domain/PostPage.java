@@ -0,0 +1,50 @@
+package sk.pelikan.post.domain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * One page of a keyset paginated listing. {@code next} is an opaque cursor for the following page and is absent
+ * on the last page.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PostPage {
+    private final List<PostSummary> items;
+    private final String next;
+
+    public PostPage(List<PostSummary> items, String next) {
+        this.items = items;
+        this.next = next;
+    }
+
+    public List<PostSummary> getItems() {
+        return items;
+    }
+
+    public String getNext() {
+        return next;
+    }
+
+    @Override
+    public String toString() {
+        return "PostPage{" +
+                "items=" + items +
+                ", next='" + next + '\'' +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PostPage postPage = (PostPage) o;
+        return Objects.equals(items, postPage.items) && Objects.equals(next, postPage.next);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(items, next);
+    }
+}
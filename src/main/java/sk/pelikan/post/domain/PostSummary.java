@@ -0,0 +1,60 @@
+package sk.pelikan.post.domain;
+
+import java.util.Objects;
+
+/**
+ * Read-only projection of a post used for listings. It is read with a constructor expression and never becomes
+ * a managed entity, so listing pages do not grow the persistence context.
+ */
+public class PostSummary {
+    private final Integer id;
+    private final Integer userId;
+    private final String title;
+    private final String body;
+
+    public PostSummary(Integer id, Integer userId, String title, String body) {
+        this.id = id;
+        this.userId = userId;
+        this.title = title;
+        this.body = body;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    @Override
+    public String toString() {
+        return "PostSummary{" +
+                "id=" + id +
+                ", userId=" + userId +
+                ", title='" + title + '\'' +
+                ", body='" + body + '\'' +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PostSummary that = (PostSummary) o;
+        return Objects.equals(id, that.id) && Objects.equals(userId, that.userId) && Objects.equals(title, that.title) && Objects.equals(body, that.body);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, userId, title, body);
+    }
+}
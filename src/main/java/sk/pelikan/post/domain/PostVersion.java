@@ -0,0 +1,23 @@
+package sk.pelikan.post.domain;
+
+/**
+ * ID and version of a stored post, read with a constructor expression to check cached copies against the
+ * database without loading the posts.
+ */
+public class PostVersion {
+    private final Integer id;
+    private final Long version;
+
+    public PostVersion(Integer id, Long version) {
+        this.id = id;
+        this.version = version;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,39 @@
+package sk.pelikan.post.domain.id;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Sequence based ID generator for posts using the pooled-lo optimizer, so a single sequence call covers
+ * {@link #ALLOCATION_SIZE_SETTING} inserts and inserts can be batched.
+ * Posts that already carry an ID (posts imported from the external API) keep it. The sequence starts at
+ * {@link #LOCAL_START_SETTING}, which keeps locally created IDs out of the external ID range.
+ */
+public class PostIdGenerator extends SequenceStyleGenerator {
+    public static final String SEQUENCE_NAME = "post_id_seq";
+    public static final String LOCAL_START_SETTING = "post.id.local-start";
+    public static final String ALLOCATION_SIZE_SETTING = "post.id.allocation-size";
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        Map<String, Object> settings = serviceRegistry.getService(ConfigurationService.class).getSettings();
+        parameters.setProperty(SEQUENCE_PARAM, SEQUENCE_NAME);
+        parameters.setProperty(OPT_PARAM, "pooled-lo");
+        parameters.setProperty(INITIAL_PARAM, String.valueOf(settings.getOrDefault(LOCAL_START_SETTING, 1_000_000_000)));
+        parameters.setProperty(INCREMENT_PARAM, String.valueOf(settings.getOrDefault(ALLOCATION_SIZE_SETTING, 50)));
+        super.configure(type, parameters, serviceRegistry);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        Object assignedId = session.getEntityPersister(null, object).getIdentifier(object, session);
+        return assignedId != null ? assignedId : super.generate(session, object);
+    }
+}
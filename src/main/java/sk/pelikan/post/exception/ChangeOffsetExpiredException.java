@@ -0,0 +1,7 @@
+package sk.pelikan.post.exception;
+
+public class ChangeOffsetExpiredException extends RuntimeException {
+    public ChangeOffsetExpiredException(String message) {
+        super(message);
+    }
+}
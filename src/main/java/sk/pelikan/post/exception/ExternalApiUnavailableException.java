@@ -0,0 +1,7 @@
+package sk.pelikan.post.exception;
+
+public class ExternalApiUnavailableException extends ExternalApiException {
+    public ExternalApiUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,7 @@
+package sk.pelikan.post.exception;
+
+public class IngestQueueFullException extends RuntimeException {
+    public IngestQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package sk.pelikan.post.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package sk.pelikan.post.exception;
+
+public class PostVersionConflictException extends RuntimeException {
+    public PostVersionConflictException(String message) {
+        super(message);
+    }
+
+    public PostVersionConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,41 @@
+package sk.pelikan.post.exception;
+
+import java.time.Duration;
+
+public class RateLimitExceededException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public RateLimitExceededException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * For a request that asks for more than the limit allows at once, which is never allowed.
+     */
+    public RateLimitExceededException(String message) {
+        this(message, null);
+    }
+
+    /**
+     * Whether the request would be allowed after {@link #getRetryAfter()}.
+     */
+    public boolean isRetryable() {
+        return retryAfter != null;
+    }
+
+    /**
+     * Time until the request would be allowed, or null if it never will.
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * Value of a Retry-After header, in whole seconds and at least 1.
+     */
+    public String getRetryAfterSeconds() {
+        long millis = retryAfter.toMillis();
+        return String.valueOf(Math.max(1, (millis + 999) / 1000));
+    }
+}
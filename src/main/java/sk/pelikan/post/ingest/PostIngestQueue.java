@@ -0,0 +1,213 @@
+package sk.pelikan.post.ingest;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import sk.pelikan.post.cache.UserCache;
+import sk.pelikan.post.config.IngestProperties;
+import sk.pelikan.post.domain.BatchItemResult;
+import sk.pelikan.post.domain.IngestStatus;
+import sk.pelikan.post.domain.Post;
+import sk.pelikan.post.exception.IngestQueueFullException;
+import sk.pelikan.post.exception.UserNotFoundException;
+import sk.pelikan.post.service.PostService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind queue for post creation. Submitted posts are held in a bounded in-memory queue and written by a
+ * single background thread in batches of up to {@code post.ingest.batch-size} through
+ * {@link PostService#createPosts(List)}, which verifies each distinct user once and inserts with JDBC batching.
+ * <p>
+ * Queued posts are not durable: they are drained on a graceful shutdown, but lost if the process dies. Stops after
+ * the web server, so every create that was accepted is still written.
+ */
+@Component
+@ConditionalOnProperty(prefix = "post.ingest", name = "enabled", havingValue = "true")
+public class PostIngestQueue implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(PostIngestQueue.class);
+    private static final long POLL_MILLIS = 100;
+
+    private final PostService postService;
+    private final UserCache userCache;
+    private final IngestProperties properties;
+    private final BlockingQueue<Pending> queue;
+    private final Cache<String, IngestStatus> statuses;
+    private final Counter accepted;
+    private final Counter rejected;
+    private final Counter created;
+    private final Counter failed;
+    private final Timer batches;
+    private volatile boolean running;
+    private Thread writer;
+
+    public PostIngestQueue(PostService postService, UserCache userCache, IngestProperties properties, MeterRegistry registry) {
+        this.postService = postService;
+        this.userCache = userCache;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getCapacity());
+        // evicts on the thread that adds a status, so a burst of creates cannot outgrow the bound before maintenance
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(properties.getStatusMaximumSize())
+                .expireAfterWrite(properties.getStatusTtl())
+                .executor(Runnable::run)
+                .build();
+        this.accepted = Counter.builder("post.ingest.posts").tag("result", "accepted").register(registry);
+        this.rejected = Counter.builder("post.ingest.posts").tag("result", "rejected").register(registry);
+        this.created = Counter.builder("post.ingest.posts").tag("result", "created").register(registry);
+        this.failed = Counter.builder("post.ingest.posts").tag("result", "failed").register(registry);
+        this.batches = Timer.builder("post.ingest.batches").description("Duration of batch inserts of queued posts").register(registry);
+        Gauge.builder("post.ingest.queue.size", queue, BlockingQueue::size)
+                .description("Posts waiting to be written")
+                .register(registry);
+        Gauge.builder("post.ingest.statuses", statuses, Cache::estimatedSize)
+                .description("Statuses of queued creates kept for lookup")
+                .register(registry);
+    }
+
+    /**
+     * Queues a post for creation.
+     *
+     * @return the status of the queued post, holding the tracking ID to look it up later
+     * @throws UserNotFoundException    if the post has no user or its user was recently found not to exist
+     * @throws IngestQueueFullException if the queue is full or no longer accepts posts
+     */
+    public IngestStatus submit(Post post) {
+        if (post.getUserId() == null || userCache.isKnownMissing(post.getUserId())) {
+            throw new UserNotFoundException("User with ID: " + post.getUserId() + " does not exist.");
+        }
+        if (!running) {
+            rejected.increment();
+            throw new IngestQueueFullException("Ingest queue is not accepting posts");
+        }
+        Post copy = new Post(post);
+        copy.setId(null);
+        copy.setVersion(null);
+        IngestStatus status = IngestStatus.queued(UUID.randomUUID().toString());
+        Pending pending = new Pending(status.getTrackingId(), copy);
+        statuses.put(status.getTrackingId(), status);
+        if (!queue.offer(pending)) {
+            statuses.invalidate(status.getTrackingId());
+            rejected.increment();
+            throw new IngestQueueFullException("Ingest queue is full");
+        }
+        // stop() may have run since the check above and the writer may already be gone. If the post can still be
+        // taken back, nobody is going to write it; otherwise the writer has it.
+        if (!running && queue.remove(pending)) {
+            statuses.invalidate(status.getTrackingId());
+            rejected.increment();
+            throw new IngestQueueFullException("Ingest queue is not accepting posts");
+        }
+        accepted.increment();
+        return status;
+    }
+
+    public Optional<IngestStatus> getStatus(String trackingId) {
+        return Optional.ofNullable(statuses.getIfPresent(trackingId));
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drain, "post-ingest");
+        writer.start();
+    }
+
+    /**
+     * Stops accepting posts and waits up to {@code post.ingest.drain-timeout} for the queued ones to be written.
+     */
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            writer.join(properties.getDrainTimeout().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            log.warn("Ingest queue not drained within {}, {} posts were not written", properties.getDrainTimeout(), queue.size());
+            writer.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Below the web server's phases, so requests stop arriving before the queue is drained.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void drain() {
+        List<Pending> batch = new ArrayList<>(properties.getBatchSize());
+        try {
+            while (running || !queue.isEmpty()) {
+                Pending first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, properties.getBatchSize() - 1);
+                batches.record(() -> write(batch));
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        List<Post> posts = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            posts.add(pending.post());
+        }
+        List<BatchItemResult> results;
+        try {
+            results = postService.createPosts(posts);
+        } catch (RuntimeException e) {
+            log.error("Failed to write {} queued posts", batch.size(), e);
+            for (Pending pending : batch) {
+                complete(pending, BatchItemResult.failure(HttpStatus.INTERNAL_SERVER_ERROR, null, e.getMessage()));
+            }
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            complete(batch.get(i), results.get(i));
+        }
+    }
+
+    private void complete(Pending pending, BatchItemResult result) {
+        IngestStatus status = IngestStatus.of(pending.trackingId(), result);
+        (status.getState() == IngestStatus.State.CREATED ? created : failed).increment();
+        statuses.put(pending.trackingId(), status);
+    }
+
+    private record Pending(String trackingId, Post post) {
+    }
+}
@@ -0,0 +1,66 @@
+package sk.pelikan.post.invalidation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Payload of an invalidation notification, {@code node;sentAt;id:version,id,...}: the instance that changed the
+ * posts, when it committed them in epoch milliseconds and the changed posts with their new versions. A post
+ * without version was deleted.
+ */
+record InvalidationMessage(String node, long sentAt, Map<Integer, Long> versions) {
+    /**
+     * PostgreSQL rejects payloads of 8000 bytes and more, the payload is ASCII.
+     */
+    static final int MAX_PAYLOAD_LENGTH = 7900;
+
+    /**
+     * Encodes the changes into as few payloads as fit under {@link #MAX_PAYLOAD_LENGTH}.
+     */
+    static List<String> encode(String node, long sentAt, Map<Integer, Long> versions) {
+        String header = node + ';' + sentAt + ';';
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = new StringBuilder(header);
+        for (Map.Entry<Integer, Long> entry : versions.entrySet()) {
+            String item = entry.getValue() == null ? entry.getKey().toString() : entry.getKey() + ":" + entry.getValue();
+            if (payload.length() > header.length() && payload.length() + 1 + item.length() > MAX_PAYLOAD_LENGTH) {
+                payloads.add(payload.toString());
+                payload.setLength(header.length());
+            }
+            if (payload.length() > header.length()) {
+                payload.append(',');
+            }
+            payload.append(item);
+        }
+        if (payload.length() > header.length()) {
+            payloads.add(payload.toString());
+        }
+        return payloads;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the payload is not an invalidation message
+     */
+    static InvalidationMessage decode(String payload) {
+        String[] parts = payload.split(";", 3);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Invalid invalidation payload: " + payload);
+        }
+        Map<Integer, Long> versions = new HashMap<>();
+        try {
+            for (String item : parts[2].split(",")) {
+                int separator = item.indexOf(':');
+                if (separator < 0) {
+                    versions.put(Integer.valueOf(item), null);
+                } else {
+                    versions.put(Integer.valueOf(item.substring(0, separator)), Long.valueOf(item.substring(separator + 1)));
+                }
+            }
+            return new InvalidationMessage(parts[0], Long.parseLong(parts[1]), versions);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid invalidation payload: " + payload, e);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package sk.pelikan.post.invalidation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import sk.pelikan.post.cache.PostCache;
+import sk.pelikan.post.cache.PostMembershipIndex;
+import sk.pelikan.post.config.InvalidationProperties;
+import sk.pelikan.post.dao.PostDao;
+import sk.pelikan.post.domain.PostVersion;
+import sk.pelikan.post.routing.ReadYourWrites;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the post changes other instances publish with {@link PostInvalidationPublisher}: evicts the cached posts
+ * they changed, keeps older versions of them out of the cache for a while, reads them from the primary for the
+ * read-your-writes window and adds the IDs to the membership index. Listens on a connection of its own, outside
+ * the pool, as LISTEN holds on to it for good.
+ * <p>
+ * Notifications sent while the connection is down are lost, so after every (re)connect the versions of all cached
+ * posts are checked against the database and outdated or deleted ones are evicted. Listening starts before the
+ * check, so a change committed meanwhile is either seen by the check or notified afterwards.
+ */
+@Component
+@ConditionalOnProperty(prefix = "post.invalidation", name = "enabled", havingValue = "true")
+public class PostInvalidationListener implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(PostInvalidationListener.class);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    private final InvalidationProperties properties;
+    private final DataSourceProperties dataSourceProperties;
+    private final String node;
+    private final PostCache postCache;
+    private final PostMembershipIndex membershipIndex;
+    private final ReadYourWrites readYourWrites;
+    private final PostDao postDao;
+    private final Counter received;
+    private final Counter notifiedEvictions;
+    private final Counter resyncEvictions;
+    private final Counter reconnects;
+    private final Timer lag;
+    private final Timer resyncs;
+    private volatile boolean running;
+    private volatile boolean connected;
+    private Thread listener;
+
+    public PostInvalidationListener(InvalidationProperties properties, DataSourceProperties dataSourceProperties,
+                                    PostInvalidationPublisher publisher, PostCache postCache,
+                                    PostMembershipIndex membershipIndex, ReadYourWrites readYourWrites, PostDao postDao,
+                                    MeterRegistry registry) {
+        this.properties = properties;
+        this.dataSourceProperties = dataSourceProperties;
+        this.node = publisher.getNode();
+        this.postCache = postCache;
+        this.membershipIndex = membershipIndex;
+        this.readYourWrites = readYourWrites;
+        this.postDao = postDao;
+        this.received = Counter.builder("post.invalidation.notifications")
+                .description("Invalidation notifications sent to or received from other instances")
+                .tag("direction", "received")
+                .register(registry);
+        this.notifiedEvictions = evictions(registry, "notification");
+        this.resyncEvictions = evictions(registry, "resync");
+        this.reconnects = Counter.builder("post.invalidation.reconnects")
+                .description("Times the listener connection was opened again after failing")
+                .register(registry);
+        this.lag = Timer.builder("post.invalidation.lag")
+                .description("Time from the commit of a change on another instance until it was applied here, "
+                        + "includes the clock difference of the two hosts")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.resyncs = Timer.builder("post.invalidation.resyncs")
+                .description("Duration of checking the cached posts against the database after a (re)connect")
+                .register(registry);
+        Gauge.builder("post.invalidation.connected", this, bus -> bus.connected ? 1 : 0)
+                .description("Whether the listener connection is up")
+                .register(registry);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        listener = new Thread(this::listen, "post-invalidation");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            listener.join(2 * properties.getPollInterval().toMillis() + 1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Applies a notification payload. Notifications of this instance are skipped, it updated its cache itself.
+     */
+    void apply(String payload, long receivedAt) {
+        InvalidationMessage message = InvalidationMessage.decode(payload);
+        received.increment();
+        if (node.equals(message.node())) {
+            return;
+        }
+        readYourWrites.notified(message.versions().keySet());
+        notifiedEvictions.increment(postCache.evictStale(message.versions()));
+        membershipIndex.stored(message.versions().entrySet().stream()
+                .filter(entry -> entry.getValue() != null)
+                .map(Map.Entry::getKey)
+                .toList());
+        lag.record(Math.max(0, receivedAt - message.sentAt()), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Evicts the cached posts whose version differs from the stored one or that are no longer stored.
+     */
+    void resync() {
+        resyncs.record(() -> {
+            List<Integer> ids = new ArrayList<>(postCache.versions().keySet());
+            for (int from = 0; from < ids.size(); from += properties.getResyncBatchSize()) {
+                List<Integer> batch = ids.subList(from, Math.min(ids.size(), from + properties.getResyncBatchSize()));
+                Map<Integer, Long> stored = new HashMap<>();
+                for (Integer id : batch) {
+                    stored.put(id, null);
+                }
+                for (PostVersion version : postDao.findVersions(batch)) {
+                    stored.put(version.getId(), version.getVersion());
+                }
+                resyncEvictions.increment(postCache.evictStale(stored));
+            }
+        });
+    }
+
+    private void listen() {
+        boolean reconnect = false;
+        while (running) {
+            try (Connection connection = connect()) {
+                if (reconnect) {
+                    reconnects.increment();
+                }
+                connected = true;
+                resync();
+                receive(connection);
+            } catch (SQLException | RuntimeException e) {
+                log.warn("Post invalidation listener failed, reconnecting in {}", properties.getReconnectDelay(), e);
+                sleep(properties.getReconnectDelay());
+            } finally {
+                connected = false;
+            }
+            reconnect = true;
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LISTEN \"" + properties.getChannel().replace("\"", "\"\"") + '"');
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        return connection;
+    }
+
+    private void receive(Connection connection) throws SQLException {
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        int pollMillis = (int) properties.getPollInterval().toMillis();
+        long keepaliveNanos = properties.getKeepaliveInterval().toNanos();
+        long lastActivity = System.nanoTime();
+        while (running) {
+            PGNotification[] notifications = pgConnection.getNotifications(pollMillis);
+            long now = System.nanoTime();
+            if (notifications != null && notifications.length > 0) {
+                lastActivity = now;
+                long receivedAt = System.currentTimeMillis();
+                for (PGNotification notification : notifications) {
+                    if (Objects.equals(notification.getName(), properties.getChannel())) {
+                        applyQuietly(notification.getParameter(), receivedAt);
+                    }
+                }
+            } else if (now - lastActivity >= keepaliveNanos) {
+                if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    throw new SQLException("Post invalidation listener connection is no longer valid");
+                }
+                lastActivity = now;
+            }
+        }
+    }
+
+    private void applyQuietly(String payload, long receivedAt) {
+        try {
+            apply(payload, receivedAt);
+        } catch (IllegalArgumentException e) {
+            log.warn("Skipping invalid post invalidation notification", e);
+        }
+    }
+
+    private static Counter evictions(MeterRegistry registry, String source) {
+        return Counter.builder("post.invalidation.evictions")
+                .description("Cached posts evicted because another instance changed them")
+                .tag("source", source)
+                .register(registry);
+    }
+
+    private static void sleep(Duration delay) {
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package sk.pelikan.post.invalidation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import sk.pelikan.post.config.InvalidationProperties;
+import sk.pelikan.post.domain.Post;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Broadcasts post changes to the other instances with PostgreSQL NOTIFY. The changes of a transaction are
+ * collected and sent right before it commits, on the transaction's connection: PostgreSQL delivers the notifications only
+ * if the transaction commits, and only after it did, so no instance evicts a post before the change is visible
+ * and none for a change that was rolled back. Does nothing unless {@code post.invalidation.enabled} is set.
+ */
+@Component
+public class PostInvalidationPublisher {
+    private final JdbcTemplate jdbcTemplate;
+    private final InvalidationProperties properties;
+    private final String node = UUID.randomUUID().toString().substring(0, 8);
+    private final Counter notifications;
+
+    public PostInvalidationPublisher(JdbcTemplate jdbcTemplate, InvalidationProperties properties, MeterRegistry registry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.notifications = Counter.builder("post.invalidation.notifications")
+                .description("Invalidation notifications sent to or received from other instances")
+                .tag("direction", "sent")
+                .register(registry);
+    }
+
+    /**
+     * Identifies this instance in its notifications, so that it can skip its own.
+     */
+    public String getNode() {
+        return node;
+    }
+
+    /**
+     * Publishes created or updated posts with their versions. Must be called after the changes are flushed.
+     */
+    public void changed(Collection<Post> posts) {
+        Map<Integer, Long> versions = new LinkedHashMap<>();
+        for (Post post : posts) {
+            versions.put(post.getId(), post.getVersion());
+        }
+        publish(versions);
+    }
+
+    public void deleted(Collection<Integer> ids) {
+        Map<Integer, Long> versions = new LinkedHashMap<>();
+        for (Integer id : ids) {
+            versions.put(id, null);
+        }
+        publish(versions);
+    }
+
+    private void publish(Map<Integer, Long> versions) {
+        if (!properties.isEnabled() || versions.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            send(versions);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Map<Integer, Long> pending = (Map<Integer, Long>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<Integer, Long> collected = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, collected);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    send(collected);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PostInvalidationPublisher.this);
+                }
+            });
+            pending = collected;
+        }
+        pending.putAll(versions);
+    }
+
+    private void send(Map<Integer, Long> versions) {
+        List<String> payloads = InvalidationMessage.encode(node, System.currentTimeMillis(), versions);
+        for (String payload : payloads) {
+            jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, properties.getChannel(), payload);
+        }
+        notifications.increment(payloads.size());
+    }
+}
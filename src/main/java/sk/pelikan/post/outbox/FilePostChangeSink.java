@@ -0,0 +1,44 @@
+package sk.pelikan.post.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import sk.pelikan.post.config.OutboxProperties;
+import sk.pelikan.post.domain.PostChange;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends change events to {@code post.outbox.file} as one JSON object per line.
+ */
+@Component
+@ConditionalOnProperty(prefix = "post.outbox", name = "sink", havingValue = "file")
+public class FilePostChangeSink implements PostChangeSink {
+    private final OutboxProperties properties;
+    private final ObjectWriter writer;
+
+    public FilePostChangeSink(OutboxProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.writer = objectMapper.writerFor(PostChange.class);
+    }
+
+    @Override
+    public synchronized void publish(List<PostChange> changes) {
+        try (Writer out = Files.newBufferedWriter(properties.getFile(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (PostChange change : changes) {
+                out.write(writer.writeValueAsString(change));
+                out.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package sk.pelikan.post.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import sk.pelikan.post.config.OutboxProperties;
+import sk.pelikan.post.dao.PostChangeDao;
+import sk.pelikan.post.domain.PostChange;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Publishes change events from the outbox to the {@link PostChangeSink} every {@code post.outbox.relay-interval}.
+ * Each batch is locked, numbered with the next stream offsets and handed to the sink in one transaction, so
+ * offsets are contiguous and relays on several instances never number the same event. The SSE sink sends only
+ * once that transaction has committed, so its subscribers never hold the batch locked. Published events are
+ * deleted once they are older than {@code post.outbox.retention}.
+ */
+@Component
+public class PostChangeRelay implements SchedulingConfigurer {
+    private static final Logger log = LoggerFactory.getLogger(PostChangeRelay.class);
+
+    private final PostChangeDao postChangeDao;
+    private final PostChangeSink sink;
+    private final TransactionOperations transactions;
+    private final OutboxProperties properties;
+    private final Counter published;
+    private final Counter failures;
+
+    public PostChangeRelay(PostChangeDao postChangeDao, PostChangeSink sink, TransactionOperations transactions,
+                           OutboxProperties properties, MeterRegistry registry) {
+        this.postChangeDao = postChangeDao;
+        this.sink = sink;
+        this.transactions = transactions;
+        this.properties = properties;
+        this.published = Counter.builder("post.outbox.published").description("Change events published to the sink").register(registry);
+        this.failures = Counter.builder("post.outbox.failures").description("Relay runs aborted by an error").register(registry);
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.addFixedDelayTask(new FixedDelayTask(this::relayQuietly, properties.getRelayInterval(), properties.getRelayInterval()));
+        registrar.addFixedDelayTask(new FixedDelayTask(this::cleanUpQuietly, properties.getCleanupInterval(), properties.getCleanupInterval()));
+    }
+
+    /**
+     * Publishes batches until the outbox holds no unpublished events.
+     *
+     * @return the number of published events
+     */
+    public int relay() {
+        int total = 0;
+        int count;
+        do {
+            count = transactions.execute(status -> publishBatch());
+            total += count;
+        } while (count == properties.getBatchSize());
+        return total;
+    }
+
+    /**
+     * Deletes published events older than the retention, always keeping the last one.
+     *
+     * @return the number of deleted events
+     */
+    public int cleanUp() {
+        Long lastOffset = postChangeDao.findLastOffset();
+        Long cutoff = postChangeDao.findLastOffsetBefore(Instant.now().minus(properties.getRetention()));
+        if (lastOffset == null || cutoff == null) {
+            return 0;
+        }
+        return postChangeDao.deleteUpTo(Math.min(cutoff, lastOffset - 1));
+    }
+
+    private int publishBatch() {
+        List<PostChange> changes = postChangeDao.findUnpublished(Limit.of(properties.getBatchSize()));
+        if (changes.isEmpty()) {
+            return 0;
+        }
+        Long lastOffset = postChangeDao.findLastOffset();
+        long offset = lastOffset == null ? 0 : lastOffset;
+        for (PostChange change : changes) {
+            change.setStreamOffset(++offset);
+        }
+        postChangeDao.flush();
+        sink.publish(changes);
+        published.increment(changes.size());
+        return changes.size();
+    }
+
+    private void relayQuietly() {
+        try {
+            relay();
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("Publishing post changes failed", e);
+        }
+    }
+
+    private void cleanUpQuietly() {
+        try {
+            int deleted = cleanUp();
+            if (deleted > 0) {
+                log.info("Deleted {} post changes older than {}", deleted, properties.getRetention());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Deleting old post changes failed", e);
+        }
+    }
+}
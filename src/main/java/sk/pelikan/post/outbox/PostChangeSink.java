@@ -0,0 +1,15 @@
+package sk.pelikan.post.outbox;
+
+import sk.pelikan.post.domain.PostChange;
+
+import java.util.List;
+
+/**
+ * Destination {@link PostChangeRelay} publishes change events to. Called inside the relay transaction, after the
+ * offsets are assigned; throwing rolls the batch back so it is published again by the next run. Delivery is
+ * therefore at least once and consumers drop duplicates by event ID. Sinks that may block on their consumers must
+ * defer the delivery until after the commit, as the batch stays locked until then.
+ */
+public interface PostChangeSink {
+    void publish(List<PostChange> changes);
+}
@@ -0,0 +1,63 @@
+package sk.pelikan.post.outbox;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import sk.pelikan.post.dao.PostChangeDao;
+import sk.pelikan.post.domain.Post;
+import sk.pelikan.post.domain.PostChange;
+import sk.pelikan.post.domain.PostChangePage;
+import sk.pelikan.post.exception.ChangeOffsetExpiredException;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Transactional outbox of post changes. Events are recorded in the transaction of the change they describe, so
+ * they are committed or rolled back together with it, and published later by {@link PostChangeRelay}.
+ */
+@Component
+public class PostOutbox {
+    private final PostChangeDao postChangeDao;
+
+    public PostOutbox(PostChangeDao postChangeDao) {
+        this.postChangeDao = postChangeDao;
+    }
+
+    /**
+     * Records a change event for each of the posts. Pending changes are flushed first, so the events carry the
+     * versions the posts are committed with.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(PostChange.Type type, Collection<Post> posts) {
+        postChangeDao.flush();
+        Instant now = Instant.now();
+        postChangeDao.saveAll(posts.stream().map(post -> PostChange.of(type, post, now)).toList());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeleted(Collection<Integer> ids) {
+        Instant now = Instant.now();
+        postChangeDao.saveAll(ids.stream().map(id -> PostChange.deleted(id, now)).toList());
+    }
+
+    /**
+     * Reads published change events after the given offset. Offset 0 starts at the oldest event still retained,
+     * so a new consumer can always read from the start.
+     *
+     * @throws ChangeOffsetExpiredException if events right after a non-zero offset were already deleted
+     */
+    @Transactional(readOnly = true)
+    public PostChangePage changesSince(long since, int limit) {
+        List<PostChange> items = postChangeDao.findPublishedAfter(since, Limit.of(limit));
+        if (items.isEmpty()) {
+            return new PostChangePage(items, since);
+        }
+        if (since > 0 && items.get(0).getStreamOffset() > since + 1) {
+            throw new ChangeOffsetExpiredException("Changes after offset " + since + " are no longer retained.");
+        }
+        return new PostChangePage(items, items.get(items.size() - 1).getStreamOffset());
+    }
+}
@@ -0,0 +1,73 @@
+package sk.pelikan.post.outbox;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import sk.pelikan.post.domain.PostChange;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Pushes change events to in-process subscribers as server-sent events, with the stream offset as event ID.
+ * Subscribers only see events published while they are connected and catch up through the offset listing.
+ * <p>
+ * Events published in a transaction are sent after it commits, so a slow subscriber holds up neither the locks of
+ * the relay nor the offsets of other instances; if the transaction rolls back, nothing is sent.
+ */
+@Component
+@ConditionalOnProperty(prefix = "post.outbox", name = "sink", havingValue = "sse", matchIfMissing = true)
+public class SsePostChangeSink implements PostChangeSink {
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+    public SseEmitter subscribe() {
+        return subscribe(new SseEmitter());
+    }
+
+    SseEmitter subscribe(SseEmitter emitter) {
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+        emitters.add(emitter);
+        return emitter;
+    }
+
+    @Override
+    public void publish(List<PostChange> changes) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            send(changes);
+            return;
+        }
+        List<PostChange> committed = List.copyOf(changes);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                send(committed);
+            }
+        });
+    }
+
+    public int getSubscriberCount() {
+        return emitters.size();
+    }
+
+    private void send(List<PostChange> changes) {
+        for (SseEmitter emitter : emitters) {
+            try {
+                for (PostChange change : changes) {
+                    emitter.send(SseEmitter.event()
+                            .id(String.valueOf(change.getStreamOffset()))
+                            .name(change.getType().name())
+                            .data(change, MediaType.APPLICATION_JSON));
+                }
+            } catch (IOException | IllegalStateException e) {
+                // the subscriber is gone, a failed subscriber must not hold back the others
+                emitters.remove(emitter);
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package sk.pelikan.post.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import sk.pelikan.post.config.RateLimitProperties;
+import sk.pelikan.post.exception.RateLimitExceededException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Applies the per-client limit of the endpoint before the handler runs, answering 429 with Retry-After when the
+ * client is over it. The client is identified by the {@code post.rate-limit.client-header} header if it holds one of
+ * the {@code post.rate-limit.api-keys}, and by its remote address otherwise. Unknown header values are ignored rather
+ * than given a bucket, as each one would start with a full bucket and push the buckets of real clients out.
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+    private final RateLimiter rateLimiter;
+    private final RateLimitProperties properties;
+    private final Map<String, String> endpointNames = new ConcurrentHashMap<>();
+
+    public RateLimitInterceptor(RateLimiter rateLimiter, RateLimitProperties properties) {
+        this.rateLimiter = rateLimiter;
+        this.properties = properties;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        String endpoint = endpointNames.computeIfAbsent(handlerMethod.getMethod().getName(), RateLimitInterceptor::kebabCase);
+        String client = request.getHeader(properties.getClientHeader());
+        if (client == null || !properties.getApiKeys().contains(client)) {
+            client = request.getRemoteAddr();
+        }
+        try {
+            rateLimiter.acquireClient(endpoint, client);
+            return true;
+        } catch (RateLimitExceededException e) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, e.getRetryAfterSeconds());
+            return false;
+        }
+    }
+
+    static String kebabCase(String name) {
+        StringBuilder kebab = new StringBuilder(name.length() + 4);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isUpperCase(c)) {
+                kebab.append('-').append(Character.toLowerCase(c));
+            } else {
+                kebab.append(c);
+            }
+        }
+        return kebab.toString();
+    }
+}
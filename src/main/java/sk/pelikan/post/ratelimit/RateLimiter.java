@@ -0,0 +1,150 @@
+package sk.pelikan.post.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import sk.pelikan.post.config.RateLimitProperties;
+import sk.pelikan.post.exception.RateLimitExceededException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Token bucket rate limits per client and endpoint, and per user for post creation. Buckets are created on first
+ * use and dropped after {@code post.rate-limit.idle-timeout} without requests. They live in a Caffeine cache,
+ * whose lookups of existing buckets take no lock and whose bookkeeping is striped across buffers, and every bucket
+ * is updated by compare-and-set, so the limiter adds no contention point of its own.
+ */
+@Component
+@ConditionalOnProperty(prefix = "post.rate-limit", name = "enabled", havingValue = "true")
+public class RateLimiter {
+    private final RateLimitProperties properties;
+    private final Ticker ticker;
+    private final Cache<String, TokenBucket> clientBuckets;
+    private final Cache<Integer, TokenBucket> userBuckets;
+    private final MeterRegistry registry;
+
+    @Autowired
+    public RateLimiter(RateLimitProperties properties, MeterRegistry registry) {
+        this(properties, registry, Ticker.systemTicker());
+    }
+
+    RateLimiter(RateLimitProperties properties, MeterRegistry registry, Ticker ticker) {
+        this.properties = properties;
+        this.registry = registry;
+        this.ticker = ticker;
+        this.clientBuckets = buckets();
+        this.userBuckets = buckets();
+        Gauge.builder("post.rate.limit.buckets", clientBuckets, Cache::estimatedSize)
+                .description("Token buckets kept in memory")
+                .tag("scope", "client")
+                .register(registry);
+        Gauge.builder("post.rate.limit.buckets", userBuckets, Cache::estimatedSize)
+                .description("Token buckets kept in memory")
+                .tag("scope", "user")
+                .register(registry);
+    }
+
+    /**
+     * Takes a request of the client to the endpoint from its bucket. Endpoints without a configured limit are
+     * not limited.
+     *
+     * @param endpoint kebab-cased name of the handler method
+     * @param client   API key or remote address of the client
+     * @throws RateLimitExceededException if the client made too many requests to the endpoint
+     */
+    public void acquireClient(String endpoint, String client) {
+        RateLimitProperties.Limit limit = properties.getEndpoints().get(endpoint);
+        if (limit == null) {
+            return;
+        }
+        long now = ticker.read();
+        TokenBucket bucket = clientBuckets.get(endpoint + ' ' + client, key -> new TokenBucket(limit.getCapacity(), limit.getRefillPerSecond(), now));
+        acquire(bucket, 1, now, "client", endpoint);
+    }
+
+    /**
+     * Takes the creation of posts of each user from the user's bucket, for all users or none. The users' buckets
+     * are checked before any is taken from, so a rejected request costs no user tokens, and its retry time is when
+     * all of them will hold enough.
+     *
+     * @param postsPerUser number of posts to create, keyed by user ID
+     * @throws RateLimitExceededException if a user created too many posts, not retryable if the request holds
+     *                                    more posts of a user than the limit's capacity
+     */
+    public void acquireUserWrites(Map<Integer, Integer> postsPerUser) {
+        RateLimitProperties.Limit limit = properties.getUserWrites();
+        if (limit == null) {
+            return;
+        }
+        long now = ticker.read();
+        Map<TokenBucket, Integer> needed = new LinkedHashMap<>();
+        long wait = 0;
+        for (Map.Entry<Integer, Integer> entry : postsPerUser.entrySet()) {
+            if (entry.getKey() == null) {
+                continue;
+            }
+            if (entry.getValue() > limit.getCapacity()) {
+                requests("user", "user-writes", "rejected").increment();
+                throw new RateLimitExceededException("Request holds more posts of user " + entry.getKey()
+                        + " than the user-writes limit allows at once");
+            }
+            TokenBucket bucket = userBuckets.get(entry.getKey(), key -> new TokenBucket(limit.getCapacity(), limit.getRefillPerSecond(), now));
+            needed.put(bucket, entry.getValue());
+            wait = Math.max(wait, bucket.waitFor(entry.getValue(), now));
+        }
+        if (wait == 0) {
+            List<Map.Entry<TokenBucket, Integer>> acquired = new ArrayList<>();
+            for (Map.Entry<TokenBucket, Integer> entry : needed.entrySet()) {
+                wait = entry.getKey().tryAcquire(entry.getValue(), now);
+                if (wait > 0) {
+                    // Another request took the tokens since the check
+                    acquired.forEach(done -> done.getKey().release(done.getValue()));
+                    break;
+                }
+                acquired.add(entry);
+            }
+        }
+        if (wait > 0) {
+            requests("user", "user-writes", "rejected").increment();
+            throw new RateLimitExceededException("Rate limit of user-writes exceeded", Duration.ofNanos(wait));
+        }
+        requests("user", "user-writes", "allowed").increment(needed.size());
+    }
+
+    private void acquire(TokenBucket bucket, int tokens, long now, String scope, String endpoint) {
+        long wait = bucket.tryAcquire(tokens, now);
+        if (wait == 0) {
+            requests(scope, endpoint, "allowed").increment();
+            return;
+        }
+        requests(scope, endpoint, "rejected").increment();
+        throw new RateLimitExceededException("Rate limit of " + endpoint + " exceeded", Duration.ofNanos(wait));
+    }
+
+    private Counter requests(String scope, String endpoint, String result) {
+        return Counter.builder("post.rate.limit.requests")
+                .description("Requests checked against a rate limit")
+                .tag("scope", scope)
+                .tag("endpoint", endpoint)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private <K> Cache<K, TokenBucket> buckets() {
+        return Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumBuckets())
+                .expireAfterAccess(properties.getIdleTimeout())
+                .ticker(ticker)
+                .build();
+    }
+}
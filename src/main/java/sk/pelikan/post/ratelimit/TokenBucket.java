@@ -0,0 +1,62 @@
+package sk.pelikan.post.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket in its virtual scheduling form (GCRA): instead of a token count it keeps the time at which
+ * the bucket will be full again, and a request is allowed if taking its tokens leaves that time at most one full
+ * bucket ahead of now. The whole state is one long updated by compare-and-set, so concurrent requests never block.
+ */
+final class TokenBucket {
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final AtomicLong fullAt;
+
+    TokenBucket(int capacity, double refillPerSecond, long now) {
+        this.nanosPerToken = Math.max(1, (long) (1_000_000_000L / refillPerSecond));
+        this.burstNanos = capacity * nanosPerToken;
+        this.fullAt = new AtomicLong(now);
+    }
+
+    /**
+     * Tells how long it takes until the bucket holds the tokens, without taking them.
+     *
+     * @param tokens number of tokens
+     * @param now    current time in nanoseconds, from the same clock as on creation
+     * @return 0 if the bucket holds the tokens now, otherwise the nanoseconds until it will
+     */
+    long waitFor(int tokens, long now) {
+        return Math.max(0, Math.max(fullAt.get(), now) + tokens * nanosPerToken - burstNanos - now);
+    }
+
+    /**
+     * Puts back tokens taken by {@link #tryAcquire(int, long)} for a request that was not made after all.
+     *
+     * @param tokens number of tokens taken
+     */
+    void release(int tokens) {
+        fullAt.addAndGet(-tokens * nanosPerToken);
+    }
+
+    /**
+     * Takes the tokens if the bucket holds enough of them.
+     *
+     * @param tokens number of tokens to take
+     * @param now    current time in nanoseconds, from the same clock as on creation
+     * @return 0 if the tokens were taken, otherwise the nanoseconds until they would be available
+     */
+    long tryAcquire(int tokens, long now) {
+        long cost = tokens * nanosPerToken;
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + cost;
+            long wait = next - burstNanos - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
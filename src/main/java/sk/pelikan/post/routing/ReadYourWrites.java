@@ -0,0 +1,83 @@
+package sk.pelikan.post.routing;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+import sk.pelikan.post.config.ReplicaProperties;
+import sk.pelikan.post.domain.Post;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * Remembers posts and users written in the last {@code post.replicas.read-your-writes-window} and sends their reads
+ * to the primary, so a replica lagging behind cannot serve, or put into the post cache, the state before a write.
+ * Covers writes made through this instance and the changes other instances notified, see {@link #notified}.
+ */
+@Component
+public class ReadYourWrites {
+    private static final int MAXIMUM_SIZE = 100_000;
+
+    private final boolean enabled;
+    private final Cache<Integer, Boolean> posts;
+    private final Cache<Integer, Boolean> users;
+
+    public ReadYourWrites(ReplicaProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.posts = Caffeine.newBuilder()
+                .maximumSize(MAXIMUM_SIZE)
+                .expireAfterWrite(properties.getReadYourWritesWindow())
+                .build();
+        this.users = Caffeine.newBuilder()
+                .maximumSize(MAXIMUM_SIZE)
+                .expireAfterWrite(properties.getReadYourWritesWindow())
+                .build();
+    }
+
+    public void written(Collection<Post> writtenPosts) {
+        if (!enabled) {
+            return;
+        }
+        for (Post post : writtenPosts) {
+            posts.put(post.getId(), Boolean.TRUE);
+            if (post.getUserId() != null) {
+                users.put(post.getUserId(), Boolean.TRUE);
+            }
+        }
+    }
+
+    public void deleted(Collection<Integer> ids) {
+        if (!enabled) {
+            return;
+        }
+        ids.forEach(id -> posts.put(id, Boolean.TRUE));
+    }
+
+    /**
+     * Sends the reads of posts another instance changed to the primary for the window, as a replica may not have
+     * the change yet.
+     */
+    public void notified(Collection<Integer> ids) {
+        deleted(ids);
+    }
+
+    /**
+     * Reads posts, from the primary if any of them was written recently.
+     */
+    public <T> T readPosts(Collection<Integer> ids, Supplier<T> read) {
+        if (enabled && ids.stream().anyMatch(id -> posts.getIfPresent(id) != null)) {
+            return ReplicaRoutingDataSource.onPrimary(read);
+        }
+        return read.get();
+    }
+
+    /**
+     * Reads posts of a user, from the primary if the user wrote a post recently.
+     */
+    public <T> T readUserPosts(Integer userId, Supplier<T> read) {
+        if (enabled && userId != null && users.getIfPresent(userId) != null) {
+            return ReplicaRoutingDataSource.onPrimary(read);
+        }
+        return read.get();
+    }
+}
@@ -0,0 +1,162 @@
+package sk.pelikan.post.search;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import sk.pelikan.post.dao.PostDao;
+import sk.pelikan.post.domain.Post;
+import sk.pelikan.post.domain.PostSummary;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-process inverted index used where the database has no full-text search, such as H2 in tests.
+ * Every word maps to the posts containing it with a weight of 1.0 per occurrence in the title and 0.4 per
+ * occurrence in the body, the default weights of PostgreSQL's ts_rank for the A and B labels. The index is built
+ * from the database on startup and kept up to date by the service on every write.
+ */
+public class InMemoryPostSearchIndex implements PostSearchIndex {
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final float TITLE_WEIGHT = 1.0f;
+    private static final float BODY_WEIGHT = 0.4f;
+    private static final Comparator<SearchHit> RANKING = Comparator.comparingDouble(SearchHit::getRank).reversed()
+            .thenComparing(hit -> hit.getPost().getId());
+
+    private final PostDao postDao;
+    private final TransactionOperations transactions;
+    private final Map<String, Map<Integer, Float>> postings = new ConcurrentHashMap<>();
+    private final Map<Integer, Document> documents = new ConcurrentHashMap<>();
+
+    public InMemoryPostSearchIndex(PostDao postDao, TransactionOperations transactions) {
+        this.postDao = postDao;
+        this.transactions = transactions;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        transactions.executeWithoutResult(status -> {
+            try (Stream<PostSummary> posts = postDao.streamAll()) {
+                posts.forEach(this::add);
+            }
+        });
+    }
+
+    @Override
+    public List<SearchHit> search(String query, Integer userId, Float afterRank, Integer afterId, int limit) {
+        List<Map<Integer, Float>> matches = new ArrayList<>();
+        for (String term : new LinkedHashSet<>(tokenize(query))) {
+            matches.add(postings.getOrDefault(term, Map.of()));
+        }
+        if (matches.isEmpty()) {
+            return List.of();
+        }
+        matches.sort(Comparator.comparingInt(Map::size));
+
+        List<SearchHit> hits = new ArrayList<>();
+        candidates:
+        for (Map.Entry<Integer, Float> candidate : matches.get(0).entrySet()) {
+            float rank = candidate.getValue();
+            for (int i = 1; i < matches.size(); i++) {
+                Float weight = matches.get(i).get(candidate.getKey());
+                if (weight == null) {
+                    continue candidates;
+                }
+                rank += weight;
+            }
+            Document document = documents.get(candidate.getKey());
+            if (document == null || userId != null && !userId.equals(document.post().getUserId())) {
+                continue;
+            }
+            if (afterRank != null && (rank > afterRank || rank == afterRank && candidate.getKey() <= afterId)) {
+                continue;
+            }
+            hits.add(new SearchHit(document.post(), rank));
+        }
+        hits.sort(RANKING);
+        return hits.size() > limit ? List.copyOf(hits.subList(0, limit)) : hits;
+    }
+
+    @Override
+    public void index(Collection<Post> posts) {
+        List<PostSummary> summaries = posts.stream()
+                .map(post -> new PostSummary(post.getId(), post.getUserId(), post.getTitle(), post.getBody()))
+                .toList();
+        afterCommit(() -> summaries.forEach(this::add));
+    }
+
+    @Override
+    public void remove(Collection<Integer> ids) {
+        List<Integer> removed = List.copyOf(ids);
+        afterCommit(() -> removed.forEach(this::delete));
+    }
+
+    private synchronized void add(PostSummary post) {
+        delete(post.getId());
+        Map<String, Float> weights = new HashMap<>();
+        for (String term : tokenize(post.getTitle())) {
+            weights.merge(term, TITLE_WEIGHT, Float::sum);
+        }
+        for (String term : tokenize(post.getBody())) {
+            weights.merge(term, BODY_WEIGHT, Float::sum);
+        }
+        weights.forEach((term, weight) -> postings.computeIfAbsent(term, key -> new ConcurrentHashMap<>()).put(post.getId(), weight));
+        documents.put(post.getId(), new Document(post, weights.keySet()));
+    }
+
+    private synchronized void delete(Integer id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.terms()) {
+            postings.computeIfPresent(term, (key, posts) -> {
+                posts.remove(id);
+                return posts.isEmpty() ? null : posts;
+            });
+        }
+    }
+
+    /**
+     * Splits text into lower-cased words. Every occurrence is returned, so repeated words weigh more.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> terms = new ArrayList<>();
+        for (String term : SEPARATOR.split(text.toLowerCase())) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    private static void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    private record Document(PostSummary post, Set<String> terms) {
+    }
+}
@@ -0,0 +1,38 @@
+package sk.pelikan.post.search;
+
+import sk.pelikan.post.domain.Post;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Full-text index over post titles and bodies. All words of the query must match, title matches rank higher
+ * than body matches.
+ */
+public interface PostSearchIndex {
+    /**
+     * Finds posts matching the query.
+     *
+     * @param query     the words to search for
+     * @param userId    the ID of the user whose posts to search, or null to search all posts
+     * @param afterRank the rank of the last hit of the previous page, or null for the first page
+     * @param afterId   the ID of the last hit of the previous page, or null for the first page
+     * @param limit     the maximum number of hits to return
+     * @return the hits ordered by descending rank, then by ID
+     */
+    List<SearchHit> search(String query, Integer userId, Float afterRank, Integer afterId, int limit);
+
+    /**
+     * Adds or replaces posts in the index, after the current transaction commits if there is one.
+     *
+     * @param posts the created or updated posts
+     */
+    void index(Collection<Post> posts);
+
+    /**
+     * Removes posts from the index, after the current transaction commits if there is one.
+     *
+     * @param ids the IDs of the deleted posts
+     */
+    void remove(Collection<Integer> ids);
+}
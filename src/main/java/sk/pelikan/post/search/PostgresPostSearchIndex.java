@@ -0,0 +1,73 @@
+package sk.pelikan.post.search;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import sk.pelikan.post.domain.Post;
+import sk.pelikan.post.domain.PostSummary;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Full-text search on PostgreSQL. A stored generated tsvector column, added by migration V2, keeps the index in
+ * step with every write, a GIN index on it finds the matching rows without scanning the table, and ts_rank orders
+ * them. At most {@code maxCandidates} matching rows are read and ranked, so latency stays flat however many posts
+ * match a common term; such a term gets the best hits among the candidates the index returned first rather than
+ * among all matches. Terms matching fewer posts are ranked exactly.
+ */
+public class PostgresPostSearchIndex implements PostSearchIndex {
+    private static final Pattern CONFIG_NAME = Pattern.compile("[a-z_]+");
+    private static final RowMapper<SearchHit> HIT_MAPPER = (rs, rowNum) -> new SearchHit(
+            new PostSummary(rs.getInt("id"), rs.getInt("user_id"), rs.getString("title"), rs.getString("body")),
+            rs.getFloat("rank"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final String textSearchConfig;
+    private final int maxCandidates;
+
+    public PostgresPostSearchIndex(NamedParameterJdbcTemplate jdbcTemplate, String textSearchConfig, int maxCandidates) {
+        if (!CONFIG_NAME.matcher(textSearchConfig).matches()) {
+            throw new IllegalArgumentException("Invalid text search configuration: " + textSearchConfig);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.textSearchConfig = textSearchConfig;
+        this.maxCandidates = maxCandidates;
+    }
+
+    @Override
+    public List<SearchHit> search(String query, Integer userId, Float afterRank, Integer afterId, int limit) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("config", textSearchConfig)
+                .addValue("query", query)
+                .addValue("limit", limit);
+        // the LIMIT keeps the candidates subquery from being flattened, so only the candidates are ranked
+        StringBuilder sql = new StringBuilder("SELECT id, user_id, title, body, rank FROM (" +
+                "SELECT id, user_id, title, body, ts_rank(search_vector, query) AS rank " +
+                "FROM websearch_to_tsquery(CAST(:config AS regconfig), :query) query, LATERAL (" +
+                "SELECT id, user_id, title, body, search_vector FROM post WHERE search_vector @@ query");
+        if (userId != null) {
+            sql.append(" AND user_id = :userId");
+            parameters.addValue("userId", userId);
+        }
+        sql.append(" LIMIT :candidates) candidates) hits");
+        parameters.addValue("candidates", maxCandidates);
+        if (afterRank != null) {
+            sql.append(" WHERE rank < :afterRank OR (rank = :afterRank AND id > :afterId)");
+            parameters.addValue("afterRank", afterRank).addValue("afterId", afterId);
+        }
+        sql.append(" ORDER BY rank DESC, id LIMIT :limit");
+        return jdbcTemplate.query(sql.toString(), parameters, HIT_MAPPER);
+    }
+
+    @Override
+    public void index(Collection<Post> posts) {
+        // search_vector is generated by the database on every insert and update
+    }
+
+    @Override
+    public void remove(Collection<Integer> ids) {
+        // deleted rows leave the GIN index together with the row
+    }
+}
@@ -0,0 +1,33 @@
+package sk.pelikan.post.search;
+
+import sk.pelikan.post.domain.PostSummary;
+
+/**
+ * A post matching a search together with its rank. Hits are ordered by descending rank, then by ascending ID,
+ * and the (rank, ID) pair of the last hit is where the next page continues.
+ */
+public class SearchHit {
+    private final PostSummary post;
+    private final float rank;
+
+    public SearchHit(PostSummary post, float rank) {
+        this.post = post;
+        this.rank = rank;
+    }
+
+    public PostSummary getPost() {
+        return post;
+    }
+
+    public float getRank() {
+        return rank;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchHit{" +
+                "post=" + post +
+                ", rank=" + rank +
+                '}';
+    }
+}
@@ -1,8 +1,14 @@
 package sk.pelikan.post.service;
 
+import sk.pelikan.post.domain.BatchItemResult;
+import sk.pelikan.post.domain.ImportResult;
 import sk.pelikan.post.domain.Post;
+import sk.pelikan.post.domain.PostPage;
+import sk.pelikan.post.domain.PostSummary;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface PostService {
     /**
@@ -10,6 +16,7 @@ public interface PostService {
      * The user's existence is verified via an external API call.
      * Throws UserNotFoundException if the user does not exist.
      * Throws ExternalApiException if the external API call fails.
+     * Any ID sent by the client is ignored; locally created posts get IDs from the local ID range.
      *
      * @param post the post to be created
      * @return the saved post with an assigned ID
@@ -28,18 +35,125 @@ public interface PostService {
     Optional<Post> getPost(Integer id);
 
     /**
-     * Updates an existing post's title and body with the provided values.
-     * Throws PostNotFoundException if the post with the given ID does not exist.
+     * Updates an existing post's title and body with the provided values in a single statement.
+     * Throws PostNotFoundException if the post with the given ID does not exist locally. Only if
+     * {@code post.update.import-missing} is enabled, a post missing locally is first imported from the external API.
+     * If the post carries a version, the update only succeeds while the stored post still has that version,
+     * otherwise PostVersionConflictException is thrown. The user ID is never changed; if the post carries one, the
+     * update first reads that user's partition alone and only falls back to a lookup by ID if the post is not there.
      *
-     * @param post the post to update, containing the new title and body
+     * @param post the post to update, containing the new title and body and optionally the user ID as a routing
+     *             hint and the expected version
      * @return an Optional containing the updated post
      */
     Optional<Post> updatePost(Post post);
 
     /**
-     * Deletes a post by its ID. Throws PostNotFoundException if the post with the given ID does not exist.
+     * Deletes a post by its ID with a single statement. Throws PostNotFoundException if the post with the given ID
+     * does not exist.
      *
      * @param id the ID of the post to delete
      */
     void deletePost(Integer id);
-}
\ No newline at end of file
+
+    /**
+     * Deletes a post by its ID if it still has the expected version. Throws PostNotFoundException if the post
+     * with the given ID does not exist and PostVersionConflictException if it has another version.
+     *
+     * @param id              the ID of the post to delete
+     * @param expectedVersion the version the post must have, or null to delete any version
+     */
+    void deletePost(Integer id, Long expectedVersion);
+
+    /**
+     * Deletes a post of the given user if it still has the expected version. With the user known, the delete reads
+     * that user's partition alone. Throws PostNotFoundException if the user has no post with the given ID and
+     * PostVersionConflictException if it has another version.
+     *
+     * @param id              the ID of the post to delete
+     * @param userId          the user of the post, or null if unknown
+     * @param expectedVersion the version the post must have, or null to delete any version
+     */
+    void deletePost(Integer id, Integer userId, Long expectedVersion);
+
+    /**
+     * Creates posts in bulk. Each distinct user is verified only once for the whole batch and all accepted posts
+     * are inserted with one batched write.
+     * Items whose user does not exist get status 404, items whose user could not be verified get status 500.
+     *
+     * @param posts the posts to be created
+     * @return one result per post, in request order, carrying the saved post on success
+     */
+    List<BatchItemResult> createPosts(List<Post> posts);
+
+    /**
+     * Retrieves posts in bulk. Posts that are not cached are read with one query; posts missing locally are
+     * imported from the external API the same way as in {@link #getPost(Integer)}.
+     *
+     * @param ids the IDs of the posts to retrieve
+     * @return one result per ID, in request order, carrying the post on success
+     */
+    List<BatchItemResult> getPosts(List<Integer> ids);
+
+    /**
+     * Updates title and body of posts in bulk with one batched write.
+     * Posts that do not exist locally are reported with status 404 and are never imported.
+     * Posts carrying a version that is no longer current are reported with status 409.
+     *
+     * @param posts the posts to update, containing the new titles and bodies
+     * @return one result per post, in request order, carrying the updated post on success
+     */
+    List<BatchItemResult> updatePosts(List<Post> posts);
+
+    /**
+     * Deletes posts in bulk with a single statement.
+     *
+     * @param ids the IDs of the posts to delete
+     * @return one result per ID, in request order, with status 204 or 404
+     */
+    List<BatchItemResult> deletePosts(List<Integer> ids);
+
+    /**
+     * Lists the posts of a user ordered by ID using keyset pagination.
+     * Throws InvalidCursorException if the cursor was not issued for this user.
+     *
+     * @param userId the ID of the user whose posts to list
+     * @param after  the cursor returned with the previous page, or null for the first page
+     * @param limit  the maximum number of posts on the page
+     * @return the page of posts and the cursor of the next page, if there is one
+     */
+    PostPage listPosts(Integer userId, String after, int limit);
+
+    /**
+     * Searches post titles and bodies for all words of the query. Hits are ranked, title matches above body
+     * matches, and paginated with a keyset cursor over (rank, ID).
+     * Throws InvalidCursorException if the cursor is not a search cursor.
+     *
+     * @param query  the words to search for
+     * @param userId the ID of the user whose posts to search, or null to search all posts
+     * @param after  the cursor returned with the previous page, or null for the first page
+     * @param limit  the maximum number of posts on the page
+     * @return the page of matching posts and the cursor of the next page, if there is one
+     */
+    PostPage searchPosts(String query, Integer userId, String after, int limit);
+
+    /**
+     * Passes every post, ordered by ID, to the consumer while reading them from a database cursor inside a
+     * read-only transaction. Posts are handed over one at a time and are not retained, so the consumer controls
+     * the pace and memory stays flat regardless of the number of posts.
+     *
+     * @param consumer receives the posts, typically writing them to a response
+     */
+    void exportPosts(Consumer<PostSummary> consumer);
+
+    /**
+     * Stores posts fetched from the external API under their external IDs. Missing posts are inserted, posts whose
+     * user, title or body differ are updated and identical posts are left untouched, all in one transaction.
+     * Posts with an ID in the range of locally created posts are rejected, so that the external API can neither
+     * duplicate nor overwrite a local post.
+     *
+     * @param posts the posts as returned by the external API
+     * @return how many posts were inserted, updated, left unchanged and rejected
+     */
+    ImportResult importPosts(List<Post> posts);
+}
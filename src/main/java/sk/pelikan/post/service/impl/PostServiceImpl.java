@@ -1,92 +1,560 @@
 package sk.pelikan.post.service.impl;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+import sk.pelikan.post.cache.PostCache;
+import sk.pelikan.post.cache.PostMembershipIndex;
+import sk.pelikan.post.cache.UserCache;
+import sk.pelikan.post.client.ExternalApiClient;
+import sk.pelikan.post.concurrent.SingleFlight;
+import sk.pelikan.post.config.PostIdProperties;
+import sk.pelikan.post.config.UpdateProperties;
 import sk.pelikan.post.dao.PostDao;
+import sk.pelikan.post.domain.BatchItemResult;
+import sk.pelikan.post.domain.ImportResult;
 import sk.pelikan.post.domain.Post;
+import sk.pelikan.post.domain.PostChange;
+import sk.pelikan.post.domain.PostPage;
+import sk.pelikan.post.domain.PostSummary;
 import sk.pelikan.post.domain.User;
 import sk.pelikan.post.exception.ExternalApiException;
+import sk.pelikan.post.exception.ExternalApiUnavailableException;
+import sk.pelikan.post.exception.InvalidCursorException;
 import sk.pelikan.post.exception.PostNotFoundException;
+import sk.pelikan.post.exception.PostVersionConflictException;
 import sk.pelikan.post.exception.UserNotFoundException;
+import sk.pelikan.post.invalidation.PostInvalidationPublisher;
+import sk.pelikan.post.outbox.PostOutbox;
+import sk.pelikan.post.routing.ReadYourWrites;
+import sk.pelikan.post.search.PostSearchIndex;
+import sk.pelikan.post.search.SearchHit;
 import sk.pelikan.post.service.PostService;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class PostServiceImpl implements PostService {
-    private final RestTemplate restTemplate;
+    /**
+     * Version given to posts imported under their external ID. Without it Spring Data would persist them,
+     * which Hibernate refuses for an entity with a generated ID already set, instead of merging them.
+     */
+    private static final Long INITIAL_VERSION = 0L;
+
+    private final ExternalApiClient externalApiClient;
     private final PostDao postDao;
+    private final UserCache userCache;
+    private final PostCache postCache;
+    private final SingleFlight<Integer, Post> postImports;
+    private final SingleFlight<Integer, User> userLookups;
+    private final UpdateProperties updateProperties;
+    private final PostSearchIndex postSearchIndex;
+    private final PostOutbox outbox;
+    private final TransactionOperations transactions;
+    private final ReadYourWrites readYourWrites;
+    private final PostMembershipIndex membershipIndex;
+    private final PostInvalidationPublisher invalidations;
+    private final PostIdProperties idProperties;
+    private final Counter localLookups;
+    private final Counter importedLookups;
+    private final Counter notFoundLookups;
+    private final Counter failedLookups;
 
-    public PostServiceImpl(RestTemplate restTemplate, PostDao postDao) {
-        this.restTemplate = restTemplate;
+    public PostServiceImpl(ExternalApiClient externalApiClient, PostDao postDao, UserCache userCache, PostCache postCache,
+                           SingleFlight<Integer, Post> postImports, SingleFlight<Integer, User> userLookups,
+                           UpdateProperties updateProperties, PostSearchIndex postSearchIndex, PostOutbox outbox,
+                           TransactionOperations transactions, ReadYourWrites readYourWrites,
+                           PostMembershipIndex membershipIndex, PostInvalidationPublisher invalidations,
+                           PostIdProperties idProperties, MeterRegistry registry) {
+        this.externalApiClient = externalApiClient;
         this.postDao = postDao;
+        this.userCache = userCache;
+        this.postCache = postCache;
+        this.postImports = postImports;
+        this.userLookups = userLookups;
+        this.updateProperties = updateProperties;
+        this.postSearchIndex = postSearchIndex;
+        this.outbox = outbox;
+        this.transactions = transactions;
+        this.readYourWrites = readYourWrites;
+        this.membershipIndex = membershipIndex;
+        this.invalidations = invalidations;
+        this.idProperties = idProperties;
+        this.localLookups = lookupCounter(registry, "local");
+        this.importedLookups = lookupCounter(registry, "imported");
+        this.notFoundLookups = lookupCounter(registry, "not_found");
+        this.failedLookups = lookupCounter(registry, "failed");
     }
 
     @Override
     public Post createPost(Post post) {
-        String uri = "https://jsonplaceholder.typicode.com/users/" + post.getUserId();
-        User user;
+        Integer userId = post.getUserId();
+        if (userId == null || userCache.get(userId, this::lookupUser).isEmpty()) {
+            throw new UserNotFoundException("User with ID: " + userId + " does not exist.");
+        }
+        post.setId(null);
+        post.setVersion(null);
+        Post savedPost = transactions.execute(status -> {
+            Post saved = postDao.save(post);
+            membershipIndex.stored(List.of(saved.getId()));
+            outbox.record(PostChange.Type.CREATED, List.of(saved));
+            invalidations.changed(List.of(saved));
+            return saved;
+        });
+        readYourWrites.written(List.of(savedPost));
+        postCache.put(savedPost);
+        postSearchIndex.index(List.of(savedPost));
+        return savedPost;
+    }
 
+    @Override
+    public Optional<Post> getPost(Integer id) {
+        Optional<Post> optionalPost = postCache.get(id, key -> membershipIndex.mightBeStored(key)
+                ? readYourWrites.readPosts(List.of(key), () -> postDao.findById(key))
+                : Optional.empty());
+        if (optionalPost.isPresent()) {
+            localLookups.increment();
+            return optionalPost;
+        }
         try {
-            user = restTemplate.getForObject(uri, User.class);
-        } catch (Exception e) {
-            throw new ExternalApiException("Failed to verify user with ID: " + post.getUserId(), e);
+            Post importedPost = postImports.execute(id, () -> importPost(id));
+            importedLookups.increment();
+            return Optional.of(importedPost);
+        } catch (PostNotFoundException e) {
+            notFoundLookups.increment();
+            throw e;
+        } catch (ExternalApiException e) {
+            failedLookups.increment();
+            throw e;
         }
+    }
 
-        if (user != null) {
-            return postDao.save(post);
-        } else {
-            throw new UserNotFoundException("User with ID: " + post.getUserId() + " does not exist.");
+    @Override
+    public Optional<Post> updatePost(Post updatedPost) {
+        Integer id = updatedPost.getId();
+        Integer userId = updatedPost.getUserId();
+        Optional<Post> savedPost = updateContentOf(id, userId, updatedPost.getTitle(), updatedPost.getBody(), updatedPost.getVersion());
+        if (savedPost.isEmpty() && updatedPost.getVersion() == null && updateProperties.isImportMissing()) {
+            postImports.execute(id, () -> importPost(id));
+            savedPost = updateContentOf(id, userId, updatedPost.getTitle(), updatedPost.getBody(), null);
+        }
+        postCache.invalidate(id);
+        if (savedPost.isEmpty()) {
+            throw missingOrConflicting(id, null, updatedPost.getVersion());
         }
+        readYourWrites.written(List.of(savedPost.get()));
+        postSearchIndex.index(List.of(savedPost.get()));
+        return savedPost;
     }
 
     @Override
-    public Optional<Post> getPost(Integer id) {
-        Optional<Post> optionalPost = postDao.findById(id);
-        if (optionalPost.isPresent()) {
-            return optionalPost;
-        } else {
-            String uri = "https://jsonplaceholder.typicode.com/posts/" + id;
-            Post post;
+    public void deletePost(Integer id) {
+        deletePost(id, null);
+    }
+
+    @Override
+    public void deletePost(Integer id, Long expectedVersion) {
+        deletePost(id, null, expectedVersion);
+    }
+
+    @Override
+    public void deletePost(Integer id, Integer userId, Long expectedVersion) {
+        int deleted = transactions.execute(status -> {
+            int count;
+            if (userId == null) {
+                count = expectedVersion == null ? postDao.deleteIfPresent(id) : postDao.deleteIfVersion(id, expectedVersion);
+            } else {
+                count = expectedVersion == null ? postDao.deleteIfPresent(id, userId) : postDao.deleteIfVersion(id, userId, expectedVersion);
+            }
+            if (count > 0) {
+                outbox.recordDeleted(List.of(id));
+                invalidations.deleted(List.of(id));
+            }
+            return count;
+        });
+        postCache.invalidate(id);
+        if (deleted == 0) {
+            throw missingOrConflicting(id, userId, expectedVersion);
+        }
+        readYourWrites.deleted(List.of(id));
+        postSearchIndex.remove(List.of(id));
+    }
+
+    @Override
+    public List<BatchItemResult> createPosts(List<Post> posts) {
+        Map<Integer, RuntimeException> userFailures = new HashMap<>();
+        Set<Integer> verifiedUsers = new HashSet<>();
+        for (Post post : posts) {
+            Integer userId = post.getUserId();
+            if (userId == null || verifiedUsers.contains(userId) || userFailures.containsKey(userId)) {
+                continue;
+            }
             try {
-                post = restTemplate.getForObject(uri, Post.class);
-            } catch (Exception e) {
-                throw new ExternalApiException("Failed to fetch post from external API with ID: " + id, e);
+                if (userCache.get(userId, this::lookupUser).isPresent()) {
+                    verifiedUsers.add(userId);
+                } else {
+                    userFailures.put(userId, new UserNotFoundException("User with ID: " + userId + " does not exist."));
+                }
+            } catch (ExternalApiException e) {
+                userFailures.put(userId, e);
             }
-            if (post != null) {
-                Post savedPost = postDao.save(post);
-                return Optional.of(savedPost);
+        }
+
+        BatchItemResult[] results = new BatchItemResult[posts.size()];
+        List<Post> accepted = new ArrayList<>();
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        for (int i = 0; i < posts.size(); i++) {
+            Post post = posts.get(i);
+            if (verifiedUsers.contains(post.getUserId())) {
+                post.setId(null);
+                post.setVersion(null);
+                accepted.add(post);
+                acceptedIndexes.add(i);
             } else {
-                throw new PostNotFoundException("Post with ID: " + id + " does not exist.");
+                RuntimeException failure = userFailures.getOrDefault(post.getUserId(),
+                        new UserNotFoundException("User with ID: " + post.getUserId() + " does not exist."));
+                results[i] = toFailure(post.getId(), failure);
+            }
+        }
+        if (!accepted.isEmpty()) {
+            int index = 0;
+            List<Post> savedPosts = new ArrayList<>(accepted.size());
+            Iterable<Post> saved = transactions.execute(status -> {
+                List<Post> result = new ArrayList<>();
+                postDao.saveAll(accepted).forEach(result::add);
+                membershipIndex.stored(result.stream().map(Post::getId).toList());
+                outbox.record(PostChange.Type.CREATED, result);
+                invalidations.changed(result);
+                return result;
+            });
+            for (Post savedPost : saved) {
+                postCache.put(savedPost);
+                savedPosts.add(savedPost);
+                results[acceptedIndexes.get(index++)] = BatchItemResult.success(HttpStatus.CREATED, savedPost);
             }
+            readYourWrites.written(savedPosts);
+            postSearchIndex.index(savedPosts);
         }
+        return Arrays.asList(results);
     }
 
     @Override
-    public Optional<Post> updatePost(Post updatedPost) {
-        Integer id = updatedPost.getId();
+    public List<BatchItemResult> getPosts(List<Integer> ids) {
+        Map<Integer, Post> found = postCache.getAll(new LinkedHashSet<>(ids), missing -> {
+            Set<Integer> candidates = membershipIndex.filterMightBeStored(missing);
+            return candidates.isEmpty() ? List.of() : readYourWrites.readPosts(candidates, () -> postDao.findAllById(candidates));
+        });
+        List<BatchItemResult> results = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            Post post = found.get(id);
+            if (post == null) {
+                try {
+                    post = postImports.execute(id, () -> importPost(id));
+                    found.put(id, post);
+                } catch (PostNotFoundException | ExternalApiException e) {
+                    results.add(toFailure(id, e));
+                    continue;
+                }
+            }
+            results.add(BatchItemResult.success(HttpStatus.OK, post));
+        }
+        return results;
+    }
 
-        Optional<Post> existingPostOpt = getPost(id);
+    @Override
+    @Transactional
+    public List<BatchItemResult> updatePosts(List<Post> posts) {
+        Set<Integer> ids = new HashSet<>();
+        posts.stream().map(Post::getId).filter(Objects::nonNull).forEach(ids::add);
+        Map<Integer, Post> existing = new HashMap<>();
+        for (Post post : postDao.findAllById(ids)) {
+            existing.put(post.getId(), post);
+        }
 
-        if (existingPostOpt.isPresent()) {
-            Post existingPost = existingPostOpt.get();
+        List<BatchItemResult> results = new ArrayList<>(posts.size());
+        List<Post> updated = new ArrayList<>();
+        for (Post updatedPost : posts) {
+            Post existingPost = existing.get(updatedPost.getId());
+            if (existingPost == null) {
+                results.add(toFailure(updatedPost.getId(), new PostNotFoundException("Post with ID: " + updatedPost.getId() + " does not exist.")));
+                continue;
+            }
+            try {
+                checkVersion(existingPost, updatedPost.getVersion());
+            } catch (PostVersionConflictException e) {
+                results.add(toFailure(updatedPost.getId(), e));
+                continue;
+            }
             existingPost.setTitle(updatedPost.getTitle());
             existingPost.setBody(updatedPost.getBody());
-            Post savedPost = postDao.save(existingPost);
-            return Optional.of(savedPost);
-        } else {
-            throw new PostNotFoundException("Post with ID: " + id + " does not exist.");
+            updated.add(existingPost);
+            results.add(BatchItemResult.success(HttpStatus.OK, existingPost));
+        }
+        if (!updated.isEmpty()) {
+            postDao.saveAll(updated);
+            outbox.record(PostChange.Type.UPDATED, updated);
+            invalidations.changed(updated);
+            postCache.invalidateAll(updated.stream().map(Post::getId).toList());
+            postSearchIndex.index(updated);
+            readYourWrites.written(updated);
         }
+        return results;
     }
 
     @Override
-    public void deletePost(Integer id) {
-        Optional<Post> postOptional = postDao.findById(id);
-        if (postOptional.isPresent()) {
-            Post post = postOptional.get();
-            postDao.deleteById(post.getId());
+    @Transactional
+    public List<BatchItemResult> deletePosts(List<Integer> ids) {
+        Set<Integer> existing = new HashSet<>(postDao.findExistingIds(new HashSet<>(ids)));
+        if (!existing.isEmpty()) {
+            postDao.deleteByIds(existing);
+            outbox.recordDeleted(existing);
+            invalidations.deleted(existing);
+            postCache.invalidateAll(existing);
+            postSearchIndex.remove(existing);
+            readYourWrites.deleted(existing);
+        }
+        List<BatchItemResult> results = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            if (existing.contains(id)) {
+                results.add(BatchItemResult.success(HttpStatus.NO_CONTENT, id));
+            } else {
+                results.add(toFailure(id, new PostNotFoundException("Post with ID: " + id + " does not exist.")));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PostPage listPosts(Integer userId, String after, int limit) {
+        int afterId = after == null ? 0 : decodeCursor(userId, after);
+        List<PostSummary> items = readYourWrites.readUserPosts(userId, () -> postDao.findPageByUserId(userId, afterId, Limit.of(limit + 1)));
+        if (items.size() <= limit) {
+            return new PostPage(items, null);
+        }
+        List<PostSummary> page = items.subList(0, limit);
+        return new PostPage(List.copyOf(page), encodeCursor(userId, page.get(limit - 1).getId()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PostPage searchPosts(String query, Integer userId, String after, int limit) {
+        Float afterRank = null;
+        Integer afterId = null;
+        if (after != null) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8).split(":");
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException();
+                }
+                afterRank = Float.parseFloat(parts[0]);
+                afterId = Integer.parseInt(parts[1]);
+            } catch (IllegalArgumentException e) {
+                throw new InvalidCursorException("Cursor: " + after + " is not a valid search cursor");
+            }
+        }
+        List<SearchHit> hits = postSearchIndex.search(query, userId, afterRank, afterId, limit + 1);
+        List<PostSummary> items = hits.stream().limit(limit).map(SearchHit::getPost).toList();
+        if (hits.size() <= limit) {
+            return new PostPage(items, null);
+        }
+        SearchHit last = hits.get(limit - 1);
+        String cursor = last.getRank() + ":" + last.getPost().getId();
+        return new PostPage(items, Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportPosts(Consumer<PostSummary> consumer) {
+        try (Stream<PostSummary> posts = postDao.streamAll()) {
+            posts.forEach(consumer);
+        }
+    }
+
+    @Override
+    @Transactional
+    public ImportResult importPosts(List<Post> posts) {
+        Set<Integer> ids = new HashSet<>();
+        posts.stream().map(Post::getId).filter(Objects::nonNull).filter(id -> !idProperties.isLocal(id)).forEach(ids::add);
+        Map<Integer, Post> existing = new HashMap<>();
+        for (Post post : postDao.findAllById(ids)) {
+            existing.put(post.getId(), post);
+        }
+
+        List<Post> changed = new ArrayList<>();
+        List<Post> updated = new ArrayList<>();
+        int inserted = 0;
+        int unchanged = 0;
+        int rejected = 0;
+        for (Post imported : posts) {
+            if (imported.getId() == null) {
+                continue;
+            }
+            if (idProperties.isLocal(imported.getId())) {
+                rejected++;
+                continue;
+            }
+            Post current = existing.get(imported.getId());
+            if (current == null) {
+                imported.setVersion(INITIAL_VERSION);
+                changed.add(imported);
+                existing.put(imported.getId(), imported);
+                inserted++;
+            } else if (Objects.equals(current.getUserId(), imported.getUserId())
+                    && Objects.equals(current.getTitle(), imported.getTitle())
+                    && Objects.equals(current.getBody(), imported.getBody())) {
+                unchanged++;
+            } else {
+                current.setUserId(imported.getUserId());
+                current.setTitle(imported.getTitle());
+                current.setBody(imported.getBody());
+                changed.add(current);
+                updated.add(current);
+            }
+        }
+        if (!changed.isEmpty()) {
+            Set<Integer> updatedIds = new HashSet<>(updated.stream().map(Post::getId).toList());
+            List<Post> imported = new ArrayList<>(inserted);
+            for (Post savedPost : postDao.saveAll(changed)) {
+                if (!updatedIds.contains(savedPost.getId())) {
+                    imported.add(savedPost);
+                }
+            }
+            if (!imported.isEmpty()) {
+                membershipIndex.stored(imported.stream().map(Post::getId).toList());
+                outbox.record(PostChange.Type.IMPORTED, imported);
+                invalidations.changed(imported);
+            }
+            if (!updated.isEmpty()) {
+                outbox.record(PostChange.Type.UPDATED, updated);
+                invalidations.changed(updated);
+            }
+            postCache.invalidateAll(changed.stream().map(Post::getId).toList());
+            postSearchIndex.index(changed);
+        }
+        return new ImportResult(inserted, changed.size() - inserted, unchanged, rejected);
+    }
+
+    private static String encodeCursor(Integer userId, Integer lastId) {
+        String cursor = userId + ":" + lastId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int decodeCursor(Integer userId, String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            if (parts.length == 2 && Integer.parseInt(parts[0]) == userId) {
+                return Integer.parseInt(parts[1]);
+            }
+        } catch (IllegalArgumentException e) {
+            // falls through to the exception below, NumberFormatException is an IllegalArgumentException too
+        }
+        throw new InvalidCursorException("Cursor: " + cursor + " is not valid for user with ID: " + userId);
+    }
+
+    private BatchItemResult toFailure(Integer id, RuntimeException e) {
+        HttpStatus status;
+        if (e instanceof PostNotFoundException || e instanceof UserNotFoundException) {
+            status = HttpStatus.NOT_FOUND;
+        } else if (e instanceof PostVersionConflictException) {
+            status = HttpStatus.CONFLICT;
+        } else if (e instanceof ExternalApiUnavailableException) {
+            status = HttpStatus.SERVICE_UNAVAILABLE;
+        } else {
+            status = HttpStatus.INTERNAL_SERVER_ERROR;
+        }
+        return BatchItemResult.failure(status, id, e.getMessage());
+    }
+
+    /**
+     * Explains why a conditional write touched no row. Only runs on that failure path, so successful writes stay
+     * at one statement.
+     */
+    private RuntimeException missingOrConflicting(Integer id, Integer userId, Long expectedVersion) {
+        if (expectedVersion != null && (userId == null ? postDao.existsById(id) : postDao.existsByIdAndUserId(id, userId))) {
+            return new PostVersionConflictException("Post with ID: " + id + " does not have version " + expectedVersion + ".");
+        }
+        return new PostNotFoundException("Post with ID: " + id + " does not exist.");
+    }
+
+    private static void checkVersion(Post post, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(post.getVersion())) {
+            throw new PostVersionConflictException("Post with ID: " + post.getId() + " has version " + post.getVersion()
+                    + ", expected " + expectedVersion + ".");
+        }
+    }
+
+    private static Counter lookupCounter(MeterRegistry registry, String result) {
+        return Counter.builder("post.lookups")
+                .description("Single post lookups by where the post was found")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private Post importPost(Integer id) {
+        if (idProperties.isLocal(id) || membershipIndex.isKnownMissing(id)) {
+            throw new PostNotFoundException("Post with ID: " + id + " does not exist.");
+        }
+        Post post = externalApiClient.fetchPost(id);
+        if (post != null) {
+            post.setVersion(INITIAL_VERSION);
+            Post savedPost = transactions.execute(status -> {
+                Post saved = postDao.save(post);
+                membershipIndex.stored(List.of(saved.getId()));
+                outbox.record(PostChange.Type.IMPORTED, List.of(saved));
+                invalidations.changed(List.of(saved));
+                return saved;
+            });
+            postCache.put(savedPost);
+            postSearchIndex.index(List.of(savedPost));
+            return savedPost;
         } else {
+            membershipIndex.missing(id);
             throw new PostNotFoundException("Post with ID: " + id + " does not exist.");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Updates the post in the partition of the given user first. The user ID of an update request is only a routing
+     * hint, so a post not found there, because the hint is stale or wrong, is updated by its ID alone.
+     */
+    private Optional<Post> updateContentOf(Integer id, Integer userId, String title, String body, Long expectedVersion) {
+        Optional<Post> savedPost = updateContent(id, userId, title, body, expectedVersion);
+        if (savedPost.isEmpty() && userId != null) {
+            savedPost = updateContent(id, null, title, body, expectedVersion);
+        }
+        return savedPost;
+    }
+
+    private Optional<Post> updateContent(Integer id, Integer userId, String title, String body, Long expectedVersion) {
+        return transactions.execute(status -> {
+            Optional<Post> savedPost = postDao.updateContent(id, userId, title, body, expectedVersion);
+            savedPost.ifPresent(post -> {
+                outbox.record(PostChange.Type.UPDATED, List.of(post));
+                invalidations.changed(List.of(post));
+            });
+            return savedPost;
+        });
+    }
+
+    private User lookupUser(Integer userId) {
+        return userLookups.execute(userId, () -> externalApiClient.fetchUser(userId));
+    }
+}
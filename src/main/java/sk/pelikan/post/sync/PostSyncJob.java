@@ -0,0 +1,176 @@
+package sk.pelikan.post.sync;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+import sk.pelikan.post.cache.UserCache;
+import sk.pelikan.post.client.ExternalApiClient;
+import sk.pelikan.post.config.SyncProperties;
+import sk.pelikan.post.domain.ImportResult;
+import sk.pelikan.post.domain.Post;
+import sk.pelikan.post.domain.User;
+import sk.pelikan.post.exception.ExternalApiException;
+import sk.pelikan.post.service.PostService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pulls all users and posts from the external API and stores missing or changed posts locally, so that reads do
+ * not pay for lazy imports. Pages are fetched and imported by {@code parallelism} workers at a time until the
+ * first short page. Runs after {@code post.sync.initial-delay} and then every {@code post.sync.interval}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "post.sync", name = "enabled", havingValue = "true")
+public class PostSyncJob implements SchedulingConfigurer {
+    private static final Logger log = LoggerFactory.getLogger(PostSyncJob.class);
+
+    private final ExternalApiClient externalApiClient;
+    private final PostService postService;
+    private final UserCache userCache;
+    private final SyncProperties properties;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong lastSuccessMillis = new AtomicLong();
+    private final Timer duration;
+    private final Counter pages;
+    private final Counter inserted;
+    private final Counter updated;
+    private final Counter unchanged;
+    private final Counter rejected;
+    private final Counter failures;
+
+    public PostSyncJob(ExternalApiClient externalApiClient, PostService postService, UserCache userCache,
+                       SyncProperties properties, MeterRegistry registry) {
+        this.externalApiClient = externalApiClient;
+        this.postService = postService;
+        this.userCache = userCache;
+        this.properties = properties;
+        this.duration = Timer.builder("post.sync.duration").description("Duration of complete sync runs").register(registry);
+        this.pages = Counter.builder("post.sync.pages").description("Pages of posts fetched and imported").register(registry);
+        this.inserted = Counter.builder("post.sync.posts").tag("result", "inserted").register(registry);
+        this.updated = Counter.builder("post.sync.posts").tag("result", "updated").register(registry);
+        this.unchanged = Counter.builder("post.sync.posts").tag("result", "unchanged").register(registry);
+        this.rejected = Counter.builder("post.sync.posts").tag("result", "rejected").register(registry);
+        this.failures = Counter.builder("post.sync.failures").description("Sync runs aborted by an error").register(registry);
+        Gauge.builder("post.sync.running", running, r -> r.get() ? 1 : 0).register(registry);
+        TimeGauge.builder("post.sync.last.success", lastSuccessMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Epoch time of the last successful sync run")
+                .register(registry);
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.addFixedDelayTask(new FixedDelayTask(this::runQuietly, properties.getInterval(), properties.getInitialDelay()));
+    }
+
+    /**
+     * Runs one sync unless another one is still in progress.
+     *
+     * @return the accumulated import result, or null if a sync was already running
+     */
+    public ImportResult run() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Skipping sync, previous run is still in progress");
+            return null;
+        }
+        try {
+            ImportResult result = duration.record(this::sync);
+            lastSuccessMillis.set(System.currentTimeMillis());
+            log.info("Sync finished: {}", result);
+            return result;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void runQuietly() {
+        try {
+            run();
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("Sync failed", e);
+        }
+    }
+
+    private ImportResult sync() {
+        List<User> users = externalApiClient.fetchUsers();
+        users.forEach(userCache::put);
+
+        int parallelism = properties.getParallelism();
+        int pageSize = properties.getPageSize();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        int totalInserted = 0;
+        int totalUpdated = 0;
+        int totalUnchanged = 0;
+        int totalRejected = 0;
+        try {
+            int nextPage = 1;
+            boolean lastPageSeen = false;
+            while (!lastPageSeen) {
+                List<Future<PageResult>> wave = new ArrayList<>(parallelism);
+                for (int i = 0; i < parallelism; i++) {
+                    int page = nextPage++;
+                    wave.add(executor.submit(() -> importPage(page, pageSize)));
+                }
+                for (Future<PageResult> future : wave) {
+                    PageResult page = await(future);
+                    totalInserted += page.result().getInserted();
+                    totalUpdated += page.result().getUpdated();
+                    totalUnchanged += page.result().getUnchanged();
+                    totalRejected += page.result().getRejected();
+                    lastPageSeen |= page.size() < pageSize;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return new ImportResult(totalInserted, totalUpdated, totalUnchanged, totalRejected);
+    }
+
+    private PageResult importPage(int page, int pageSize) {
+        List<Post> posts = externalApiClient.fetchPostPage(page, pageSize);
+        if (posts.isEmpty()) {
+            return new PageResult(0, new ImportResult(0, 0, 0, 0));
+        }
+        ImportResult result = postService.importPosts(posts);
+        pages.increment();
+        inserted.increment(result.getInserted());
+        updated.increment(result.getUpdated());
+        unchanged.increment(result.getUnchanged());
+        rejected.increment(result.getRejected());
+        return new PageResult(posts.size(), result);
+    }
+
+    private static PageResult await(Future<PageResult> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new ExternalApiException("Sync of posts failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExternalApiException("Sync of posts was interrupted", e);
+        }
+    }
+
+    private record PageResult(int size, ImportResult result) {
+    }
+}
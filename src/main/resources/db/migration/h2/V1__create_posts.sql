@@ -0,0 +1,36 @@
+-- Schema for H2 in tests and benchmarks, keep in step with the PostgreSQL migrations, including the upgrade of
+-- schemas that Hibernate's ddl-auto=update created before the migrations
+CREATE TABLE IF NOT EXISTS post (
+    id      integer      NOT NULL PRIMARY KEY,
+    user_id integer,
+    title   varchar(255),
+    body    varchar(255),
+    version bigint       DEFAULT 0 NOT NULL
+);
+
+ALTER TABLE post ADD COLUMN IF NOT EXISTS version bigint DEFAULT 0 NOT NULL;
+UPDATE post SET version = 0 WHERE version IS NULL;
+ALTER TABLE post ALTER COLUMN version SET DEFAULT 0;
+ALTER TABLE post ALTER COLUMN version SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_post_user_id_id ON post (user_id, id);
+
+CREATE SEQUENCE IF NOT EXISTS post_id_seq START WITH ${local-start} INCREMENT BY ${allocation-size};
+ALTER SEQUENCE post_id_seq RESTART WITH (SELECT greatest(coalesce(max(id) + 1, ${local-start}),
+        (SELECT base_value FROM information_schema.sequences WHERE sequence_name = 'POST_ID_SEQ')) FROM post);
+
+CREATE SEQUENCE IF NOT EXISTS post_change_id_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS post_change (
+    id            bigint                      NOT NULL PRIMARY KEY,
+    stream_offset bigint,
+    type          varchar(16)                 NOT NULL,
+    post_id       integer                     NOT NULL,
+    user_id       integer,
+    title         varchar(255),
+    body          varchar(255),
+    version       bigint,
+    occurred_at   timestamp(6) with time zone NOT NULL
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_post_change_stream_offset ON post_change (stream_offset);
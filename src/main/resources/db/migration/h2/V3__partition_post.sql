@@ -0,0 +1,2 @@
+-- H2 has no partitioning, only the NOT NULL partition key of the PostgreSQL table is kept
+ALTER TABLE post ALTER COLUMN user_id SET NOT NULL;
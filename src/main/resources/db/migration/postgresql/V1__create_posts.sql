@@ -0,0 +1,38 @@
+-- Also brings a schema created by Hibernate's ddl-auto=update before the migrations up to date: such databases
+-- are baselined at version 0, so this script runs on them too and has to accept every object already existing.
+CREATE TABLE IF NOT EXISTS post (
+    id      integer      NOT NULL PRIMARY KEY,
+    user_id integer,
+    title   varchar(255),
+    body    varchar(255),
+    version bigint       NOT NULL DEFAULT 0
+);
+
+ALTER TABLE post ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
+UPDATE post SET version = 0 WHERE version IS NULL;
+ALTER TABLE post ALTER COLUMN version SET DEFAULT 0, ALTER COLUMN version SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_post_user_id_id ON post (user_id, id);
+
+-- IDs below the sequence start are reserved for posts imported under their external IDs. The sequence is moved
+-- past every ID already stored, including the ones the post_seq of old schemas assigned.
+CREATE SEQUENCE IF NOT EXISTS post_id_seq START WITH ${local-start} INCREMENT BY ${allocation-size};
+SELECT setval('post_id_seq', greatest(
+        (SELECT coalesce(max(id) + 1, ${local-start}) FROM post),
+        (SELECT CASE WHEN is_called THEN last_value + ${allocation-size} ELSE last_value END FROM post_id_seq)), false);
+
+CREATE SEQUENCE IF NOT EXISTS post_change_id_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS post_change (
+    id            bigint                      NOT NULL PRIMARY KEY,
+    stream_offset bigint,
+    type          varchar(16)                 NOT NULL,
+    post_id       integer                     NOT NULL,
+    user_id       integer,
+    title         varchar(255),
+    body          varchar(255),
+    version       bigint,
+    occurred_at   timestamp(6) with time zone NOT NULL
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_post_change_stream_offset ON post_change (stream_offset);
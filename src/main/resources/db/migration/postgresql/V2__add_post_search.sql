@@ -0,0 +1,7 @@
+-- The text search configuration is baked into the generated column, changing it requires a new migration
+-- that drops and re-adds the column. Adding the column rewrites the table once.
+ALTER TABLE post ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('${text-search-config}', coalesce(title, '')), 'A') ||
+    setweight(to_tsvector('${text-search-config}', coalesce(body, '')), 'B')) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_post_search_vector ON post USING GIN (search_vector);
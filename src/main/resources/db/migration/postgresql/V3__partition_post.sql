@@ -0,0 +1,105 @@
+-- Hash partitions of post by user_id. Queries of one user's posts read a single partition and its local
+-- (user_id, id) index; lookups by ID alone probe the primary key index of every partition, so their cost grows
+-- with the partition count rather than with the row count. The partition count is fixed here, changing it needs
+-- another repartitioning. An empty post table is replaced right away. A populated one is mirrored into
+-- post_partitioned by a trigger from now on and is copied and swapped online by scripts/partition-post-table.sh.
+--
+-- A primary key of a partitioned table must contain the partition key, so it becomes (id, user_id) and the
+-- database no longer enforces unique IDs on their own. The IDs stay unique by how they are assigned: locally
+-- created posts take theirs from post_id_seq, which starts at ${local-start} and above every stored ID, and
+-- imported posts keep their external ID below that start, are only inserted after a lookup found no post with
+-- the ID, and always come with the same user from the external API, so a concurrent second import of an ID
+-- collides on (id, user_id). Writes that know the user filter by it as well and touch a single partition.
+CREATE TABLE post_partitioned (
+    id            integer      NOT NULL,
+    user_id       integer      NOT NULL,
+    title         varchar(255),
+    body          varchar(255),
+    version       bigint       NOT NULL DEFAULT 0,
+    search_vector tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector('${text-search-config}', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('${text-search-config}', coalesce(body, '')), 'B')) STORED,
+    CONSTRAINT post_partitioned_pkey PRIMARY KEY (id, user_id)
+) PARTITION BY HASH (user_id);
+
+DO $$
+BEGIN
+    FOR remainder IN 0..${post-partitions} - 1 LOOP
+        EXECUTE format('CREATE TABLE post_p%s PARTITION OF post_partitioned FOR VALUES WITH (MODULUS %s, REMAINDER %s)',
+                remainder, ${post-partitions}, remainder);
+    END LOOP;
+END $$;
+
+CREATE INDEX idx_post_partitioned_user_id_id ON post_partitioned (user_id, id);
+CREATE INDEX idx_post_partitioned_search_vector ON post_partitioned USING GIN (search_vector);
+
+-- Keeps post_partitioned in step with the writes to post until the swap. Rows the backfill copies later are
+-- locked by it, so a concurrent update or delete waits for the copy and is mirrored after it.
+CREATE FUNCTION post_partition_mirror() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        DELETE FROM post_partitioned WHERE id = OLD.id AND user_id = OLD.user_id;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO post_partitioned (id, user_id, title, body, version)
+        VALUES (NEW.id, NEW.user_id, NEW.title, NEW.body, NEW.version)
+        ON CONFLICT (id, user_id) DO UPDATE SET title = EXCLUDED.title, body = EXCLUDED.body, version = EXCLUDED.version;
+    END IF;
+    RETURN NULL;
+END $$;
+
+-- Copies post into post_partitioned in ID order, committing every batch so that no lock or snapshot is held
+-- for longer than one batch. Must be called outside a transaction block. Safe to rerun after an interruption.
+CREATE PROCEDURE post_partition_backfill(batch_size integer DEFAULT 10000) LANGUAGE plpgsql AS $$
+DECLARE
+    last_id    integer := -2147483648;
+    next_id    integer;
+    copied     bigint := 0;
+    batch_rows bigint;
+BEGIN
+    IF EXISTS (SELECT 1 FROM post WHERE user_id IS NULL) THEN
+        RAISE EXCEPTION 'Posts without user_id cannot be partitioned, assign them a user or delete them first';
+    END IF;
+    LOOP
+        SELECT max(id) INTO next_id FROM (SELECT id FROM post WHERE id > last_id ORDER BY id LIMIT batch_size) batch;
+        EXIT WHEN next_id IS NULL;
+        INSERT INTO post_partitioned (id, user_id, title, body, version)
+        SELECT id, user_id, title, body, version FROM post WHERE id > last_id AND id <= next_id FOR SHARE
+        ON CONFLICT (id, user_id) DO NOTHING;
+        GET DIAGNOSTICS batch_rows = ROW_COUNT;
+        copied := copied + batch_rows;
+        last_id := next_id;
+        COMMIT;
+        RAISE NOTICE 'Copied % posts up to ID %', copied, last_id;
+    END LOOP;
+END $$;
+
+-- Replaces post by post_partitioned. Holds an exclusive lock on post only for the renames, the backfill must
+-- have completed before.
+CREATE PROCEDURE post_partition_swap() LANGUAGE plpgsql AS $$
+BEGIN
+    LOCK TABLE post IN ACCESS EXCLUSIVE MODE;
+    DROP TRIGGER IF EXISTS post_partition_mirror ON post;
+    ALTER TABLE post RENAME TO post_unpartitioned;
+    ALTER TABLE post_unpartitioned RENAME CONSTRAINT post_pkey TO post_unpartitioned_pkey;
+    ALTER INDEX IF EXISTS idx_post_user_id_id RENAME TO idx_post_unpartitioned_user_id_id;
+    ALTER INDEX IF EXISTS idx_post_search_vector RENAME TO idx_post_unpartitioned_search_vector;
+    ALTER TABLE post_partitioned RENAME TO post;
+    ALTER TABLE post RENAME CONSTRAINT post_partitioned_pkey TO post_pkey;
+    ALTER INDEX idx_post_partitioned_user_id_id RENAME TO idx_post_user_id_id;
+    ALTER INDEX idx_post_partitioned_search_vector RENAME TO idx_post_search_vector;
+END $$;
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM post) THEN
+        CREATE TRIGGER post_partition_mirror AFTER INSERT OR UPDATE OR DELETE ON post
+            FOR EACH ROW EXECUTE FUNCTION post_partition_mirror();
+        RAISE NOTICE 'post is not empty, run scripts/partition-post-table.sh to partition it';
+    ELSE
+        CALL post_partition_swap();
+        DROP TABLE post_unpartitioned;
+        DROP PROCEDURE post_partition_backfill, post_partition_swap;
+        DROP FUNCTION post_partition_mirror;
+    END IF;
+END $$;
@@ -0,0 +1,35 @@
+package sk.pelikan.post;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import sk.pelikan.post.domain.Post;
+import sk.pelikan.post.domain.User;
+import sk.pelikan.post.domain.id.PostIdGenerator;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AppRuntimeHintsTest {
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @BeforeEach
+    void setUp() {
+        new AppRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void shouldRegisterJsonBindingOfPostsAndUsers() throws NoSuchMethodException {
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(Post.class.getMethod("getTitle")).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(Post.class.getMethod("setTitle", String.class)).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(User.class.getMethod("getName")).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(User[].class).test(hints));
+    }
+
+    @Test
+    void shouldRegisterIdGeneratorAndMigrations() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(PostIdGenerator.class).withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("db/migration/postgresql/V1__create_posts.sql").test(hints));
+    }
+}
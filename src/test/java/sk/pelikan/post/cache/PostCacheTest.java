@@ -0,0 +1,113 @@
+package sk.pelikan.post.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import sk.pelikan.post.config.PostCacheProperties;
+import sk.pelikan.post.domain.Post;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PostCacheTest {
+    private final AtomicInteger loads = new AtomicInteger();
+    private PostCache postCache;
+
+    @BeforeEach
+    void setUp() {
+        postCache = new PostCache(new PostCacheProperties());
+    }
+
+    private Optional<Post> load(Integer id) {
+        loads.incrementAndGet();
+        return id == 999 ? Optional.empty() : Optional.of(new Post(id, 1, "Title", "Body"));
+    }
+
+    @Test
+    void shouldReadThroughOnceAndReturnCopies() {
+        Post first = postCache.get(1, this::load).get();
+        first.setTitle("Changed by caller");
+        Post second = postCache.get(1, this::load).get();
+
+        assertEquals("Title", second.getTitle());
+        assertNotSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(0.5, postCache.stats().hitRate());
+    }
+
+    @Test
+    void shouldNotCacheAbsentPosts() {
+        assertTrue(postCache.get(999, this::load).isEmpty());
+        assertTrue(postCache.get(999, this::load).isEmpty());
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void shouldReloadAfterInvalidation() {
+        postCache.get(1, this::load);
+        postCache.invalidate(1);
+        postCache.get(1, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void shouldNotCacheReadThatStartedBeforeInvalidation() {
+        Optional<Post> stale = postCache.get(1, id -> {
+            Optional<Post> read = load(id);
+            postCache.invalidate(id);
+            return read;
+        });
+        postCache.get(1, this::load);
+
+        assertTrue(stale.isPresent());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void shouldKeepNewerCachedVersion() {
+        Post newer = new Post(1, 1, "Newer", "Body");
+        newer.setVersion(3L);
+        Post older = new Post(1, 1, "Older", "Body");
+        older.setVersion(2L);
+
+        postCache.put(newer);
+        postCache.put(older);
+
+        assertEquals("Newer", postCache.get(1, this::load).get().getTitle());
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void shouldNotCacheVersionsOlderThanNotified() {
+        Map<Integer, Long> notified = new HashMap<>();
+        notified.put(1, 3L);
+        notified.put(2, null);
+        postCache.evictStale(notified);
+
+        postCache.get(1, id -> load(id, 2L));
+        postCache.get(1, id -> load(id, 2L));
+        postCache.put(versioned(2, 0L));
+        assertEquals(2, loads.get());
+        assertTrue(postCache.versions().isEmpty());
+
+        postCache.get(1, id -> load(id, 3L));
+        assertEquals(3L, postCache.get(1, id -> load(id, 3L)).get().getVersion());
+        assertEquals(3, loads.get());
+    }
+
+    private Optional<Post> load(Integer id, Long version) {
+        loads.incrementAndGet();
+        return Optional.of(versioned(id, version));
+    }
+
+    private static Post versioned(Integer id, Long version) {
+        Post post = new Post(id, 1, "Title", "Body");
+        post.setVersion(version);
+        return post;
+    }
+}
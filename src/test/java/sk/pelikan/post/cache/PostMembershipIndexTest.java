@@ -0,0 +1,99 @@
+package sk.pelikan.post.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+import sk.pelikan.post.config.MembershipProperties;
+import sk.pelikan.post.config.PostIdProperties;
+import sk.pelikan.post.dao.PostDao;
+
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class PostMembershipIndexTest {
+    @Mock
+    private PostDao postDao;
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private MembershipProperties properties;
+    private PostMembershipIndex index;
+
+    @BeforeEach
+    void setUp() {
+        properties = new MembershipProperties();
+        properties.setEnabled(true);
+        properties.setExpectedInsertions(10_000);
+        index = new PostMembershipIndex(postDao, TransactionOperations.withoutTransaction(), properties, new PostIdProperties(), registry);
+    }
+
+    @Test
+    void shouldNeverRuleOutStoredPostsAndRarelyAdmitAbsentOnes() {
+        when(postDao.count()).thenReturn(10_000L);
+        when(postDao.streamIds()).thenReturn(IntStream.rangeClosed(1, 10_000).boxed());
+
+        index.rebuild();
+
+        for (int id = 1; id <= 10_000; id++) {
+            assertTrue(index.mightBeStored(id));
+        }
+        long falsePositives = IntStream.rangeClosed(20_001, 120_000).filter(index::mightBeStored).count();
+        assertTrue(falsePositives < 2_000, "false positive rate above 2%: " + falsePositives);
+        assertEquals(1, registry.get("post.membership.rebuilds").timer().count());
+    }
+
+    @Test
+    void shouldAdmitEverythingUntilBuiltOrWhenDisabled() {
+        assertTrue(index.mightBeStored(42));
+
+        when(postDao.count()).thenReturn(0L);
+        when(postDao.streamIds()).thenReturn(Stream.empty());
+        index.rebuild();
+        properties.setEnabled(false);
+
+        assertTrue(index.mightBeStored(42));
+        assertFalse(index.isKnownMissing(1_000_000_007));
+    }
+
+    @Test
+    void shouldKeepPostsStoredDuringRebuild() {
+        when(postDao.count()).thenReturn(1L);
+        when(postDao.streamIds()).thenAnswer(invocation -> {
+            index.stored(List.of(7));
+            return Stream.of(1);
+        });
+
+        index.rebuild();
+
+        assertTrue(index.mightBeStored(1));
+        assertTrue(index.mightBeStored(7));
+    }
+
+    @Test
+    void shouldForgetMissingPostOnceStored() {
+        when(postDao.count()).thenReturn(0L);
+        when(postDao.streamIds()).thenReturn(Stream.empty());
+        index.rebuild();
+
+        index.missing(40);
+        assertTrue(index.isKnownMissing(40));
+        assertFalse(index.mightBeStored(40));
+
+        index.stored(List.of(40));
+        assertFalse(index.isKnownMissing(40));
+        assertTrue(index.mightBeStored(40));
+    }
+
+    @Test
+    void shouldTreatLocalRangeAsMissingUpstream() {
+        assertTrue(index.isKnownMissing(1_000_000_007));
+        assertFalse(index.isKnownMissing(7));
+    }
+}
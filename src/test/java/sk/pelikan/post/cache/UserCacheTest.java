@@ -0,0 +1,84 @@
+package sk.pelikan.post.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import sk.pelikan.post.config.UserCacheProperties;
+import sk.pelikan.post.domain.User;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserCacheTest {
+    private final AtomicLong nanos = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+    private UserCache userCache;
+
+    @BeforeEach
+    void setUp() {
+        UserCacheProperties properties = new UserCacheProperties();
+        properties.setTtl(Duration.ofMinutes(10));
+        properties.setNegativeTtl(Duration.ofSeconds(30));
+        userCache = new UserCache(properties, nanos::get);
+    }
+
+    private User load(Integer id) {
+        loads.incrementAndGet();
+        return id == 66 ? null : new User(id, "User Name");
+    }
+
+    @Test
+    void shouldLoadOnceAndServeHitsFromMemory() {
+        Optional<User> first = userCache.get(1, this::load);
+        Optional<User> second = userCache.get(1, this::load);
+
+        assertTrue(first.isPresent());
+        assertEquals(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1, userCache.stats().hitCount());
+        assertEquals(1, userCache.stats().missCount());
+    }
+
+    @Test
+    void shouldTellKnownMissingUsersWithoutTouchingStats() {
+        userCache.get(1, this::load);
+        userCache.get(66, this::load);
+
+        assertTrue(userCache.isKnownMissing(66));
+        assertFalse(userCache.isKnownMissing(1));
+        assertFalse(userCache.isKnownMissing(2));
+        assertEquals(0, userCache.stats().hitCount());
+        assertEquals(2, userCache.stats().missCount());
+
+        nanos.addAndGet(Duration.ofMinutes(1).toNanos());
+        assertFalse(userCache.isKnownMissing(66));
+    }
+
+    @Test
+    void shouldExpireNotFoundResultsBeforeFoundResults() {
+        userCache.get(1, this::load);
+        userCache.get(66, this::load);
+
+        nanos.addAndGet(Duration.ofMinutes(1).toNanos());
+        assertTrue(userCache.get(1, this::load).isPresent());
+        assertTrue(userCache.get(66, this::load).isEmpty());
+        assertEquals(3, loads.get());
+
+        nanos.addAndGet(Duration.ofMinutes(10).toNanos());
+        userCache.get(1, this::load);
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void shouldNotCacheLoaderFailures() {
+        assertThrows(IllegalStateException.class, () -> userCache.get(1, id -> {
+            throw new IllegalStateException("Communication error");
+        }));
+
+        assertTrue(userCache.get(1, this::load).isPresent());
+        assertEquals(1, loads.get());
+    }
+}
@@ -0,0 +1,81 @@
+package sk.pelikan.post.client;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import sk.pelikan.post.domain.Post;
+import sk.pelikan.post.exception.ExternalApiException;
+import sk.pelikan.post.stub.UpstreamStub;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "post.external.read-timeout=500ms",
+        "post.external.retry.max-attempts=1",
+        "post.external.circuit-breaker.minimum-number-of-calls=100",
+        "post.outbox.relay-interval=1h"
+})
+public class ExternalApiClientIT {
+    private static final UpstreamStub upstream = start();
+
+    @Autowired
+    private ExternalApiClient client;
+
+    @DynamicPropertySource
+    static void upstreamProperties(DynamicPropertyRegistry registry) {
+        registry.add("post.external.base-url", upstream::getBaseUrl);
+    }
+
+    @AfterEach
+    public void resetUpstream() {
+        upstream.setLatency(Duration.ZERO);
+        upstream.setErrorRate(0);
+    }
+
+    @AfterAll
+    public static void stopUpstream() {
+        upstream.close();
+    }
+
+    @Test
+    public void shouldFetchFromUpstream() {
+        assertThat(client.fetchPost(12)).isEqualTo(new Post(12, 2, "Post 12", "Body of post 12"));
+        assertThat(client.fetchPost(11).getUserId()).isEqualTo(1);
+        assertThat(client.fetchUser(3).getName()).isEqualTo("User 3");
+        assertThat(client.fetchPost(101)).isNull();
+        assertThat(client.fetchPostPage(10, 10)).extracting("id").containsExactly(91, 92, 93, 94, 95, 96, 97, 98, 99, 100);
+        assertThat(client.fetchPostPage(11, 10)).isEmpty();
+        assertThat(client.fetchUsers()).hasSize(10);
+    }
+
+    @Test
+    public void shouldFailWhenUpstreamErrors() {
+        upstream.setErrorRate(1);
+
+        assertThatThrownBy(() -> client.fetchPost(1)).isInstanceOf(ExternalApiException.class);
+    }
+
+    @Test
+    public void shouldFailWhenUpstreamIsSlowerThanReadTimeout() {
+        upstream.setLatency(Duration.ofSeconds(1));
+
+        assertThatThrownBy(() -> client.fetchPost(1)).isInstanceOf(ExternalApiException.class);
+    }
+
+    private static UpstreamStub start() {
+        try {
+            return UpstreamStub.builder().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package sk.pelikan.post.client;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import sk.pelikan.post.config.ExternalApiProperties;
+import sk.pelikan.post.domain.Post;
+import sk.pelikan.post.exception.ExternalApiException;
+import sk.pelikan.post.exception.ExternalApiUnavailableException;
+
+import java.net.URI;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ExternalApiClientTest {
+    private static final URI POST_URL = URI.create("https://jsonplaceholder.typicode.com/posts/1");
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private ExternalApiProperties properties;
+    private ExternalApiGuard guard;
+    private ExternalApiClient client;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ExternalApiProperties();
+        properties.getCircuitBreaker().setSlidingWindowSize(4);
+        properties.getCircuitBreaker().setMinimumNumberOfCalls(4);
+        properties.getCircuitBreaker().setWaitInOpenState(Duration.ofMinutes(1));
+        properties.getRetry().setInitialBackoff(Duration.ofMillis(1));
+        guard = new ExternalApiGuard(properties);
+        client = new ExternalApiClient(restTemplate, properties, guard, registry);
+    }
+
+    @Test
+    void fetchPost_shouldRetryServerErrors() {
+        Post post = new Post(1, 1, "Title", "Body");
+        when(restTemplate.getForObject(POST_URL, Post.class))
+                .thenThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE))
+                .thenReturn(post);
+
+        assertEquals(post, client.fetchPost(1));
+        verify(restTemplate, times(2)).getForObject(POST_URL, Post.class);
+        assertEquals(1, registry.get("post.external.requests").tags("operation", "fetchPost", "outcome", "server_error").timer().count());
+        assertEquals(1, registry.get("post.external.requests").tags("operation", "fetchPost", "outcome", "success").timer().count());
+    }
+
+    @Test
+    void fetchPost_shouldNotRetryOrTripBreakerOnNotFound() {
+        when(restTemplate.getForObject(POST_URL, Post.class)).thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "", null, null, null));
+
+        for (int i = 0; i < 10; i++) {
+            assertNull(client.fetchPost(1));
+        }
+        verify(restTemplate, times(10)).getForObject(POST_URL, Post.class);
+        assertEquals(CircuitBreaker.State.CLOSED, guard.getState());
+    }
+
+    @Test
+    void fetchPost_shouldFailFastOnceBreakerIsOpen() {
+        properties.getRetry().setMaxAttempts(1);
+        guard = new ExternalApiGuard(properties);
+        client = new ExternalApiClient(restTemplate, properties, guard, registry);
+        when(restTemplate.getForObject(POST_URL, Post.class)).thenThrow(new ResourceAccessException("Connection refused"));
+
+        for (int i = 0; i < 4; i++) {
+            ExternalApiException e = assertThrows(ExternalApiException.class, () -> client.fetchPost(1));
+            assertFalse(e instanceof ExternalApiUnavailableException);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, guard.getState());
+        assertThrows(ExternalApiUnavailableException.class, () -> client.fetchPost(1));
+        verify(restTemplate, times(4)).getForObject(POST_URL, Post.class);
+    }
+
+    @Test
+    void fetchPost_shouldStopRetryingWhenBudgetIsExhausted() {
+        properties.getRetry().setBudgetMaxRetries(1);
+        guard = new ExternalApiGuard(properties);
+        client = new ExternalApiClient(restTemplate, properties, guard, registry);
+        when(restTemplate.getForObject(POST_URL, Post.class)).thenThrow(new ResourceAccessException("Read timed out"));
+
+        assertThrows(ExternalApiException.class, () -> client.fetchPost(1));
+
+        verify(restTemplate, times(2)).getForObject(POST_URL, Post.class);
+    }
+}
@@ -0,0 +1,42 @@
+package sk.pelikan.post.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RetryBudgetTest {
+
+    @Test
+    void retries_shouldBeRejectedOnceBudgetIsSpent() {
+        RetryBudget budget = new RetryBudget(0.1, 2);
+
+        assertTrue(budget.tryAcquireRetry());
+        assertTrue(budget.tryAcquireRetry());
+        assertFalse(budget.tryAcquireRetry());
+        assertEquals(1, budget.rejectedCount());
+    }
+
+    @Test
+    void calls_shouldRefillBudgetByRatio() {
+        RetryBudget budget = new RetryBudget(0.1, 2);
+        budget.tryAcquireRetry();
+        budget.tryAcquireRetry();
+
+        for (int i = 0; i < 9; i++) {
+            budget.recordCall();
+        }
+        assertFalse(budget.tryAcquireRetry());
+        budget.recordCall();
+        assertTrue(budget.tryAcquireRetry());
+    }
+
+    @Test
+    void calls_shouldNotRefillBudgetBeyondMaximum() {
+        RetryBudget budget = new RetryBudget(0.5, 1);
+
+        for (int i = 0; i < 100; i++) {
+            budget.recordCall();
+        }
+        assertEquals(1.0, budget.availableRetries());
+    }
+}
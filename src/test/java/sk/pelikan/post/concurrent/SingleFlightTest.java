@@ -0,0 +1,122 @@
+package sk.pelikan.post.concurrent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import sk.pelikan.post.exception.ExternalApiException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightTest {
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallsForSameKey_shouldShareOneExecution() throws Exception {
+        SingleFlight<Integer, String> singleFlight = new SingleFlight<>("test", Duration.ofSeconds(5));
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> leader = executor.submit(() -> singleFlight.execute(1, () -> {
+            executions.incrementAndGet();
+            started.countDown();
+            await(release);
+            return "post";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        List<Future<String>> followers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            followers.add(executor.submit(() -> singleFlight.execute(1, () -> {
+                executions.incrementAndGet();
+                return "duplicate";
+            })));
+        }
+        while (singleFlight.suppressedCount() < followers.size()) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertEquals("post", leader.get(5, TimeUnit.SECONDS));
+        for (Future<String> follower : followers) {
+            assertEquals("post", follower.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, executions.get());
+        assertEquals(5, singleFlight.suppressedCount());
+    }
+
+    @Test
+    void failureOfInFlightCall_shouldBeRethrownToWaitingCallers() throws Exception {
+        SingleFlight<Integer, String> singleFlight = new SingleFlight<>("test", Duration.ofSeconds(5));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> leader = executor.submit(() -> singleFlight.execute(1, () -> {
+            started.countDown();
+            await(release);
+            throw new IllegalStateException("Communication error");
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<String> follower = executor.submit(() -> singleFlight.execute(1, () -> "duplicate"));
+        while (singleFlight.suppressedCount() < 1) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        Exception leaderFailure = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+        Exception followerFailure = assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, leaderFailure.getCause());
+        assertInstanceOf(IllegalStateException.class, followerFailure.getCause());
+    }
+
+    @Test
+    void waitingCaller_shouldGiveUpAfterMaxWait() throws Exception {
+        SingleFlight<Integer, String> singleFlight = new SingleFlight<>("test", Duration.ofMillis(50));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        executor.submit(() -> singleFlight.execute(1, () -> {
+            started.countDown();
+            await(release);
+            return "post";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertThrows(ExternalApiException.class, () -> singleFlight.execute(1, () -> "duplicate"));
+        release.countDown();
+    }
+
+    @Test
+    void sequentialCalls_shouldEachExecute() {
+        SingleFlight<Integer, String> singleFlight = new SingleFlight<>("test", Duration.ofSeconds(5));
+        AtomicInteger executions = new AtomicInteger();
+
+        singleFlight.execute(1, () -> "post" + executions.incrementAndGet());
+        singleFlight.execute(1, () -> "post" + executions.incrementAndGet());
+
+        assertEquals(2, executions.get());
+        assertEquals(0, singleFlight.suppressedCount());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package sk.pelikan.post.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -8,21 +10,43 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.http.HttpStatus;
+import sk.pelikan.post.domain.BatchItemResult;
+import sk.pelikan.post.domain.IngestStatus;
 import sk.pelikan.post.domain.Post;
+import sk.pelikan.post.domain.PostPage;
+import sk.pelikan.post.domain.PostSummary;
 import sk.pelikan.post.domain.User;
 import sk.pelikan.post.exception.ExternalApiException;
+import sk.pelikan.post.exception.ExternalApiUnavailableException;
+import sk.pelikan.post.exception.IngestQueueFullException;
+import sk.pelikan.post.exception.InvalidCursorException;
 import sk.pelikan.post.exception.PostNotFoundException;
+import sk.pelikan.post.exception.PostVersionConflictException;
 import sk.pelikan.post.exception.UserNotFoundException;
+import sk.pelikan.post.ingest.PostIngestQueue;
 import sk.pelikan.post.service.PostService;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -34,6 +58,8 @@ public class PostControllerIT {
     private ObjectMapper jsonMapper;
     @MockBean
     private PostService postService;
+    @MockBean
+    private PostIngestQueue ingestQueue;
     private Post post;
 
     @BeforeEach
@@ -80,6 +106,68 @@ public class PostControllerIT {
         }
     }
 
+    @Nested
+    class ingest {
+        @Test
+        public void createPost_RespondAsync_ReturnsAcceptedWithTrackingLocation() throws Exception {
+            post.setId(null);
+            when(ingestQueue.submit(post)).thenReturn(IngestStatus.queued("abc"));
+
+            mockMvc.perform(post("/posts")
+                            .header("Prefer", "respond-async")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(jsonMapper.writeValueAsString(post)))
+                    .andExpect(status().isAccepted())
+                    .andExpect(header().string(HttpHeaders.LOCATION, "http://localhost/posts/ingest/abc"))
+                    .andExpect(header().string("Preference-Applied", "respond-async"))
+                    .andExpect(jsonPath("$.trackingId").value("abc"))
+                    .andExpect(jsonPath("$.state").value("QUEUED"));
+            verifyNoInteractions(postService);
+        }
+
+        @Test
+        public void createPost_RespondAsync_QueueFull_ReturnsTooManyRequests() throws Exception {
+            post.setId(null);
+            when(ingestQueue.submit(post)).thenThrow(new IngestQueueFullException("Ingest queue is full"));
+
+            mockMvc.perform(post("/posts")
+                            .header("Prefer", "respond-async")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(jsonMapper.writeValueAsString(post)))
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        }
+
+        @Test
+        public void createPost_RespondAsync_WithIdOrVersion_ReturnsBadRequest() throws Exception {
+            Post versioned = new Post(null, 1, "Title", "Body");
+            versioned.setVersion(3L);
+
+            for (Post invalid : List.of(post, versioned)) {
+                mockMvc.perform(post("/posts")
+                                .header("Prefer", "respond-async")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(jsonMapper.writeValueAsString(invalid)))
+                        .andExpect(status().isBadRequest());
+            }
+            verifyNoInteractions(ingestQueue, postService);
+        }
+
+        @Test
+        public void getIngestStatus_ReturnsStatusOrNotFound() throws Exception {
+            when(ingestQueue.getStatus("abc")).thenReturn(Optional.of(new IngestStatus("abc", IngestStatus.State.CREATED, 7, 201, null)));
+            when(ingestQueue.getStatus("missing")).thenReturn(Optional.empty());
+
+            mockMvc.perform(get("/posts/ingest/abc"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.state").value("CREATED"))
+                    .andExpect(jsonPath("$.postId").value(7))
+                    .andExpect(jsonPath("$.error").doesNotExist());
+            mockMvc.perform(get("/posts/ingest/missing"))
+                    .andExpect(status().isNotFound());
+        }
+    }
+
     @Nested
     class getPost {
         @Test
@@ -96,6 +184,59 @@ public class PostControllerIT {
                     .andExpect(jsonPath("$.body").value(createdPost.getBody()));
         }
 
+        @Test
+        public void getPost_NegotiatesCbor() throws Exception {
+            when(postService.getPost(1)).thenReturn(Optional.of(post));
+
+            MvcResult result = mockMvc.perform(get("/posts/{id}", 1)
+                            .accept(MediaType.APPLICATION_CBOR))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                    .andReturn();
+
+            assertThat(new CBORMapper().readValue(result.getResponse().getContentAsByteArray(), Post.class)).isEqualTo(post);
+        }
+
+        @Test
+        public void getPosts_NegotiatesSmileForBatchResponses() throws Exception {
+            when(postService.getPosts(List.of(1))).thenReturn(List.of(BatchItemResult.success(HttpStatus.OK, post)));
+
+            MvcResult result = mockMvc.perform(get("/posts").param("ids", "1")
+                            .accept(MediaType.valueOf("application/x-jackson-smile")))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType("application/x-jackson-smile"))
+                    .andReturn();
+
+            BatchItemResult[] items = new SmileMapper().readValue(result.getResponse().getContentAsByteArray(), BatchItemResult[].class);
+            assertThat(items).hasSize(1);
+            assertThat(items[0].getPost()).isEqualTo(post);
+        }
+
+        @Test
+        public void getPost_ReturnsETagOfVersion() throws Exception {
+            Post versionedPost = new Post(1, 1, "Title", "Body");
+            versionedPost.setVersion(3L);
+            when(postService.getPost(1)).thenReturn(Optional.of(versionedPost));
+
+            mockMvc.perform(get("/posts/{id}", 1))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                    .andExpect(jsonPath("$.version").value(3));
+        }
+
+        @Test
+        public void getPost_ReturnsNotModified_IfETagMatches() throws Exception {
+            Post versionedPost = new Post(1, 1, "Title", "Body");
+            versionedPost.setVersion(3L);
+            when(postService.getPost(1)).thenReturn(Optional.of(versionedPost));
+
+            mockMvc.perform(get("/posts/{id}", 1)
+                            .header(HttpHeaders.IF_NONE_MATCH, "\"2\", W/\"3\""))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                    .andExpect(content().string(""));
+        }
+
         @Test
         public void getPost_ReturnsNotFound_IfNotExists() throws Exception {
             when(postService.getPost(999)).thenReturn(Optional.empty());
@@ -105,6 +246,15 @@ public class PostControllerIT {
                     .andExpect(status().isNotFound());
         }
 
+        @Test
+        public void getPost_ReturnsServiceUnavailable_WhenExternalApiIsShedding() throws Exception {
+            when(postService.getPost(1)).thenThrow(new ExternalApiUnavailableException("Failed to fetch post from external API with ID: 1", null));
+
+            mockMvc.perform(get("/posts/{id}", 1)
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isServiceUnavailable());
+        }
+
         @Test
         public void getPost_ReturnsServerError_WhenExternalApiFails() throws Exception {
             when(postService.getPost(1)).thenThrow(new ExternalApiException("External API error"));
@@ -132,6 +282,41 @@ public class PostControllerIT {
                     .andExpect(jsonPath("$.body").value(updatedPost.getBody()));
         }
 
+        @Test
+        public void updatePost_PassesIfMatchVersionToService() throws Exception {
+            Post updatedPost = new Post(1, 1, "Updated Title", "Updated Body");
+            updatedPost.setVersion(4L);
+            when(postService.updatePost(argThat(p -> Long.valueOf(3).equals(p.getVersion())))).thenReturn(Optional.of(updatedPost));
+
+            mockMvc.perform(put("/posts")
+                            .header(HttpHeaders.IF_MATCH, "\"3\"")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(jsonMapper.writeValueAsString(post)))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+        }
+
+        @Test
+        public void updatePost_ReturnsPreconditionFailed_IfVersionChanged() throws Exception {
+            when(postService.updatePost(post)).thenThrow(new PostVersionConflictException("Post with ID: 1 has version 4, expected 3."));
+
+            mockMvc.perform(put("/posts")
+                            .header(HttpHeaders.IF_MATCH, "\"3\"")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(jsonMapper.writeValueAsString(post)))
+                    .andExpect(status().isPreconditionFailed());
+        }
+
+        @Test
+        public void updatePost_ReturnsPreconditionFailed_IfMatchIsWeak() throws Exception {
+            mockMvc.perform(put("/posts")
+                            .header(HttpHeaders.IF_MATCH, "W/\"3\"")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(jsonMapper.writeValueAsString(post)))
+                    .andExpect(status().isPreconditionFailed());
+            verifyNoInteractions(postService);
+        }
+
         @Test
         public void updatePost_ReturnsNotFound_IfNotExists() throws Exception {
             when(postService.updatePost(post)).thenReturn(Optional.empty());
@@ -157,7 +342,7 @@ public class PostControllerIT {
     class deletePost {
         @Test
         public void deletePost_ReturnsNoContent_IfExists() throws Exception {
-            doNothing().when(postService).deletePost(1);
+            doNothing().when(postService).deletePost(1, null, null);
 
             mockMvc.perform(delete("/posts/{id}", 1))
                     .andExpect(status().isNoContent());
@@ -165,10 +350,188 @@ public class PostControllerIT {
 
         @Test
         public void deletePost_ReturnsNotFound_IfNotExists() throws Exception {
-            doThrow(new PostNotFoundException("Post not found")).when(postService).deletePost(999);
+            doThrow(new PostNotFoundException("Post not found")).when(postService).deletePost(999, null, null);
 
             mockMvc.perform(delete("/posts/{id}", 999))
                     .andExpect(status().isNotFound());
         }
+
+        @Test
+        public void deletePost_ReturnsPreconditionFailed_IfVersionChanged() throws Exception {
+            doThrow(new PostVersionConflictException("Post with ID: 1 has version 4, expected 3.")).when(postService).deletePost(1, null, 3L);
+
+            mockMvc.perform(delete("/posts/{id}", 1)
+                            .header(HttpHeaders.IF_MATCH, "\"3\""))
+                    .andExpect(status().isPreconditionFailed());
+        }
+
+        @Test
+        public void deletePost_PassesUserIdToService() throws Exception {
+            mockMvc.perform(delete("/posts/{id}", 1).param("userId", "2"))
+                    .andExpect(status().isNoContent());
+            verify(postService).deletePost(1, 2, null);
+        }
+    }
+
+    @Nested
+    class batch {
+        @Test
+        public void createPosts_ReturnsResultPerItem() throws Exception {
+            Post unknownUserPost = new Post(null, 66, "Title", "Body");
+            when(postService.createPosts(List.of(post, unknownUserPost))).thenReturn(List.of(
+                    BatchItemResult.success(HttpStatus.CREATED, post),
+                    BatchItemResult.failure(HttpStatus.NOT_FOUND, null, "User with ID: 66 does not exist.")));
+
+            mockMvc.perform(post("/posts/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(jsonMapper.writeValueAsString(List.of(post, unknownUserPost))))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].status").value(201))
+                    .andExpect(jsonPath("$[0].post.title").value(post.getTitle()))
+                    .andExpect(jsonPath("$[1].status").value(404));
+        }
+
+        @Test
+        public void getPosts_ReturnsResultPerId() throws Exception {
+            when(postService.getPosts(List.of(1, 999))).thenReturn(List.of(
+                    BatchItemResult.success(HttpStatus.OK, post),
+                    BatchItemResult.failure(HttpStatus.NOT_FOUND, 999, "Post with ID: 999 does not exist.")));
+
+            mockMvc.perform(get("/posts").param("ids", "1,999"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].post.id").value(1))
+                    .andExpect(jsonPath("$[1].id").value(999))
+                    .andExpect(jsonPath("$[1].status").value(404));
+        }
+
+        @Test
+        public void updatePosts_ReturnsResultPerItem() throws Exception {
+            when(postService.updatePosts(List.of(post))).thenReturn(List.of(BatchItemResult.success(HttpStatus.OK, post)));
+
+            mockMvc.perform(put("/posts/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(jsonMapper.writeValueAsString(List.of(post))))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].status").value(200));
+        }
+
+        @Test
+        public void deletePosts_ReturnsResultPerId() throws Exception {
+            when(postService.deletePosts(List.of(1))).thenReturn(List.of(BatchItemResult.success(HttpStatus.NO_CONTENT, 1)));
+
+            mockMvc.perform(delete("/posts/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("[1]"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].status").value(204));
+        }
+    }
+
+    @Nested
+    class listPosts {
+        @Test
+        public void listPosts_ReturnsPageWithCursor() throws Exception {
+            PostPage page = new PostPage(List.of(new PostSummary(1, 1, "Title", "Body")), "MToy");
+            when(postService.listPosts(1, null, 20)).thenReturn(page);
+
+            mockMvc.perform(get("/posts").param("userId", "1"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items[0].id").value(1))
+                    .andExpect(jsonPath("$.next").value("MToy"));
+        }
+
+        @Test
+        public void listPosts_CapsLimit() throws Exception {
+            when(postService.listPosts(1, "MToy", 100)).thenReturn(new PostPage(List.of(), null));
+
+            mockMvc.perform(get("/posts").param("userId", "1").param("after", "MToy").param("limit", "5000"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.next").doesNotExist());
+        }
+
+        @Test
+        public void listPosts_ReturnsBadRequest_ForInvalidCursor() throws Exception {
+            when(postService.listPosts(1, "bogus", 20)).thenThrow(new InvalidCursorException("Cursor: bogus is not valid for user with ID: 1"));
+
+            mockMvc.perform(get("/posts").param("userId", "1").param("after", "bogus"))
+                    .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        public void listPosts_ReturnsBadRequest_WithIdsToo() throws Exception {
+            mockMvc.perform(get("/posts").param("userId", "1").param("ids", "1,2"))
+                    .andExpect(status().isBadRequest());
+            verifyNoInteractions(postService);
+        }
+    }
+
+    @Nested
+    class searchPosts {
+        @Test
+        public void searchPosts_ReturnsRankedPage() throws Exception {
+            PostPage page = new PostPage(List.of(new PostSummary(1, 1, "Spring boot", "Body")), "MS40OjE");
+            when(postService.searchPosts("spring boot", 1, null, 10)).thenReturn(page);
+
+            mockMvc.perform(get("/posts/search").param("q", "spring boot").param("userId", "1").param("limit", "10"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items[0].title").value("Spring boot"))
+                    .andExpect(jsonPath("$.next").value("MS40OjE"));
+        }
+
+        @Test
+        public void searchPosts_ReturnsBadRequest_ForBlankQuery() throws Exception {
+            mockMvc.perform(get("/posts/search").param("q", " "))
+                    .andExpect(status().isBadRequest());
+            verifyNoInteractions(postService);
+        }
+
+        @Test
+        public void searchPosts_ReturnsBadRequest_ForInvalidCursor() throws Exception {
+            when(postService.searchPosts("spring", null, "bogus", 20)).thenThrow(new InvalidCursorException("Cursor: bogus is not a valid search cursor"));
+
+            mockMvc.perform(get("/posts/search").param("q", "spring").param("after", "bogus"))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Nested
+    class exportPosts {
+        @BeforeEach
+        void setUp() {
+            doAnswer(invocation -> {
+                Consumer<PostSummary> consumer = invocation.getArgument(0);
+                consumer.accept(new PostSummary(1, 1, "Title1", "Body1"));
+                consumer.accept(new PostSummary(2, 1, "Title2", "Body2"));
+                return null;
+            }).when(postService).exportPosts(any());
+        }
+
+        @Test
+        public void exportPosts_StreamsNdjson() throws Exception {
+            MvcResult result = mockMvc.perform(get("/posts/export"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                    .andExpect(content().string("{\"id\":1,\"userId\":1,\"title\":\"Title1\",\"body\":\"Body1\"}\n" +
+                            "{\"id\":2,\"userId\":1,\"title\":\"Title2\",\"body\":\"Body2\"}\n"));
+        }
+
+        @Test
+        public void exportPosts_CompressesWhenClientAcceptsGzip() throws Exception {
+            MvcResult result = mockMvc.perform(get("/posts/export").header("Accept-Encoding", "gzip"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            byte[] body = mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Content-Encoding", "gzip"))
+                    .andReturn().getResponse().getContentAsByteArray();
+
+            String lines = new String(new GZIPInputStream(new ByteArrayInputStream(body)).readAllBytes(), StandardCharsets.UTF_8);
+            assertThat(lines.lines()).hasSize(2);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,65 @@
+package sk.pelikan.post.dao;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import sk.pelikan.post.domain.Post;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts from the schema Hibernate's ddl-auto=update created for the original entity, before the migrations, and
+ * checks that the migrations bring it up to date without losing its posts.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=validate")
+public class BaselineMigrationIT {
+    @Autowired
+    private Flyway flyway;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private PostDao postDao;
+
+    @Test
+    public void migrationsShouldUpgradeSchemaCreatedByHibernate() {
+        assertThat(Arrays.stream(flyway.info().applied()).map(MigrationInfo::getVersion).map(Object::toString))
+                .containsExactly("0", "1", "3");
+
+        assertThat(postDao.findById(1)).hasValueSatisfying(post -> {
+            assertThat(post.getTitle()).isEqualTo("Imported");
+            assertThat(post.getVersion()).isZero();
+        });
+        Post created = entityManager.persistFlushFind(new Post(null, 1, "Title", "Body"));
+        assertThat(created.getId()).isGreaterThan(1_000_000_120);
+        assertThat(created.getVersion()).isZero();
+    }
+
+    @TestConfiguration
+    static class BaselineSchema {
+        /**
+         * Creates the tables as Hibernate did for the entity with {@code GenerationType.AUTO} and no version,
+         * then migrates. One post carries an ID above the local range start, which the new sequence must skip.
+         */
+        @Bean
+        FlywayMigrationStrategy migrateFromBaselineSchema() {
+            return flyway -> {
+                JdbcTemplate jdbc = new JdbcTemplate(flyway.getConfiguration().getDataSource());
+                jdbc.execute("CREATE SEQUENCE post_seq START WITH 1 INCREMENT BY 50");
+                jdbc.execute("CREATE TABLE post (id integer NOT NULL, body varchar(255), title varchar(255), "
+                        + "user_id integer, PRIMARY KEY (id))");
+                jdbc.update("INSERT INTO post (id, body, title, user_id) VALUES (1, 'Body', 'Imported', 1), "
+                        + "(1000000120, 'Body', 'Imported with a large ID', 2)");
+                flyway.migrate();
+            };
+        }
+    }
+}
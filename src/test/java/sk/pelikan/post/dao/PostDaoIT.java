@@ -5,11 +5,17 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import sk.pelikan.post.domain.Post;
+import sk.pelikan.post.domain.PostSummary;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @DataJpaTest
 public class PostDaoIT {
@@ -48,4 +54,158 @@ public class PostDaoIT {
         assertThat(userIds).hasSize(3);
         assertThat(userIds).containsExactlyInAnyOrder(1, 2, 3);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void save_ShouldIncrementVersionAndRejectStaleCopies() {
+        entityManager.persist(post1);
+        entityManager.flush();
+        assertThat(post1.getVersion()).isZero();
+        Post staleCopy = new Post(post1);
+        entityManager.detach(post1);
+
+        Post current = new Post(post1);
+        current.setTitle("Changed");
+        Post saved = postDao.save(current);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(saved.getVersion()).isEqualTo(1L);
+        staleCopy.setTitle("Lost update");
+        assertThatThrownBy(() -> {
+            postDao.save(staleCopy);
+            entityManager.flush();
+        }).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+    }
+
+    @Test
+    public void save_ShouldRestrictUpdateAndDeleteByLoadedPartitionKey() {
+        entityManager.persist(post1);
+        entityManager.flush();
+        entityManager.clear();
+
+        Post moved = postDao.findById(post1.getId()).orElseThrow();
+        moved.setUserId(2);
+        entityManager.flush();
+        entityManager.clear();
+        assertThat(postDao.findPageByUserId(2, 0, Limit.of(10))).extracting(PostSummary::getId).containsExactly(post1.getId());
+        assertThat(postDao.findPageByUserId(1, 0, Limit.of(10))).isEmpty();
+
+        postDao.delete(postDao.findById(post1.getId()).orElseThrow());
+        entityManager.flush();
+        assertThat(postDao.existsById(post1.getId())).isFalse();
+    }
+
+    @Test
+    public void updateContent_ShouldUpdateAndReturnPostOnlyForExpectedVersion() {
+        entityManager.persist(post1);
+        entityManager.flush();
+        entityManager.clear();
+
+        Optional<Post> updated = postDao.updateContent(post1.getId(), null, "New Title", "New Body", null);
+        assertThat(updated).hasValueSatisfying(post -> {
+            assertThat(post.getUserId()).isEqualTo(1);
+            assertThat(post.getTitle()).isEqualTo("New Title");
+            assertThat(post.getVersion()).isEqualTo(1L);
+        });
+        entityManager.clear();
+
+        assertThat(postDao.updateContent(post1.getId(), null, "Stale Title", "Stale Body", 0L)).isEmpty();
+        assertThat(postDao.updateContent(post1.getId(), null, "Newer Title", "Newer Body", 1L))
+                .hasValueSatisfying(post -> assertThat(post.getVersion()).isEqualTo(2L));
+        assertThat(postDao.updateContent(-1, null, "Title", "Body", null)).isEmpty();
+    }
+
+    @Test
+    public void updateContent_ShouldUpdateOnlyPostOfGivenUser() {
+        entityManager.persist(post1);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(postDao.updateContent(post1.getId(), 2, "Other User", "Body", null)).isEmpty();
+        assertThat(postDao.updateContent(post1.getId(), 1, "New Title", "New Body", 0L))
+                .hasValueSatisfying(post -> assertThat(post.getVersion()).isEqualTo(1L));
+    }
+
+    @Test
+    public void deleteIfVersion_ShouldDeleteOnlyPostOfGivenUser() {
+        entityManager.persist(post1);
+        entityManager.flush();
+
+        assertThat(postDao.deleteIfVersion(post1.getId(), 2, 0L)).isZero();
+        assertThat(postDao.deleteIfPresent(post1.getId(), 2)).isZero();
+        assertThat(postDao.existsByIdAndUserId(post1.getId(), 1)).isTrue();
+        assertThat(postDao.deleteIfVersion(post1.getId(), 1, 0L)).isEqualTo(1);
+    }
+
+    @Test
+    public void deleteIfVersion_ShouldDeleteOnlyExpectedVersion() {
+        entityManager.persist(post1);
+        entityManager.flush();
+
+        assertThat(postDao.deleteIfVersion(post1.getId(), 1L)).isZero();
+        assertThat(postDao.deleteIfVersion(post1.getId(), 0L)).isEqualTo(1);
+        assertThat(postDao.deleteIfPresent(post1.getId())).isZero();
+    }
+
+    @Test
+    public void save_ShouldAssignIdsFromLocalRange() {
+        Post saved1 = postDao.save(post1);
+        Post saved2 = postDao.save(post2);
+
+        assertThat(saved1.getId()).isGreaterThanOrEqualTo(1_000_000_000);
+        assertThat(saved2.getId()).isEqualTo(saved1.getId() + 1);
+    }
+
+    @Test
+    public void save_ShouldKeepExternalIdOfImportedPost() {
+        Post imported = new Post(32, 1, "External", "Body");
+        imported.setVersion(0L);
+
+        postDao.save(imported);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(postDao.findById(32)).hasValueSatisfying(post -> assertThat(post.getTitle()).isEqualTo("External"));
+    }
+
+    @Test
+    public void findPageByUserId_ShouldSeekPastLastIdOfPreviousPage() {
+        for (int i = 0; i < 5; i++) {
+            entityManager.persist(new Post(null, 7, "Title" + i, "Body" + i));
+        }
+        entityManager.persist(post1);
+        entityManager.flush();
+
+        List<PostSummary> firstPage = postDao.findPageByUserId(7, 0, Limit.of(3));
+        List<PostSummary> secondPage = postDao.findPageByUserId(7, firstPage.get(2).getId(), Limit.of(3));
+
+        assertThat(firstPage).extracting(PostSummary::getTitle).containsExactly("Title0", "Title1", "Title2");
+        assertThat(secondPage).extracting(PostSummary::getTitle).containsExactly("Title3", "Title4");
+    }
+
+    @Test
+    public void streamAll_ShouldStreamProjectionsOrderedById() {
+        entityManager.persist(post1);
+        entityManager.persist(post2);
+        entityManager.persist(post3);
+        entityManager.flush();
+        entityManager.clear();
+
+        try (Stream<PostSummary> posts = postDao.streamAll()) {
+            assertThat(posts).extracting(PostSummary::getTitle).containsExactly("Title1", "Title2", "Title3");
+        }
+        assertThat(entityManager.getEntityManager().contains(post1)).isFalse();
+    }
+
+    @Test
+    public void streamIds_ShouldStreamAllIds() {
+        entityManager.persist(post1);
+        entityManager.persist(post2);
+        entityManager.persist(post3);
+        entityManager.flush();
+
+        try (Stream<Integer> ids = postDao.streamIds()) {
+            assertThat(ids).containsExactlyInAnyOrder(post1.getId(), post2.getId(), post3.getId());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package sk.pelikan.post.dao;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import sk.pelikan.post.domain.Post;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that {@code saveAll} sends inserts in JDBC batches and takes IDs from the sequence in blocks of the
+ * allocation size, so a chunk of posts costs a handful of statements rather than two per post.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true"
+})
+public class PostInsertBatchingIT {
+    private static final int POSTS = 500;
+
+    @Autowired
+    private PostDao postDao;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    public void saveAll_ShouldInsertInBatches() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<Post> posts = new ArrayList<>(POSTS);
+        for (int i = 0; i < POSTS; i++) {
+            posts.add(new Post(null, i % 100, "Title " + i, "Body " + i));
+        }
+        statistics.clear();
+
+        postDao.saveAll(posts);
+        entityManager.flush();
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(POSTS);
+        // 10 insert batches of 50 and at most 11 sequence calls for blocks of 50 IDs
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(POSTS / 50 * 2 + 1);
+    }
+}
@@ -0,0 +1,32 @@
+package sk.pelikan.post.dao;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import sk.pelikan.post.domain.Post;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Boots Hibernate with schema validation against the migrated schema, so entity changes without a migration fail
+ * here and not on startup.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=validate")
+public class SchemaMigrationIT {
+    @Autowired
+    private Flyway flyway;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    public void migrationsShouldMatchEntities() {
+        assertThat(flyway.info().pending()).isEmpty();
+
+        Post post = entityManager.persistFlushFind(new Post(null, 1, "Title", "Body"));
+
+        assertThat(post.getId()).isGreaterThanOrEqualTo(1_000_000_000);
+        assertThat(post.getVersion()).isZero();
+    }
+}
@@ -0,0 +1,187 @@
+package sk.pelikan.post.ingest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import sk.pelikan.post.cache.UserCache;
+import sk.pelikan.post.config.IngestProperties;
+import sk.pelikan.post.config.UserCacheProperties;
+import sk.pelikan.post.domain.BatchItemResult;
+import sk.pelikan.post.domain.IngestStatus;
+import sk.pelikan.post.domain.Post;
+import sk.pelikan.post.exception.IngestQueueFullException;
+import sk.pelikan.post.exception.UserNotFoundException;
+import sk.pelikan.post.service.PostService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PostIngestQueueTest {
+    @Mock
+    private PostService postService;
+    private UserCache userCache;
+    private IngestProperties properties;
+    private SimpleMeterRegistry registry;
+    private PostIngestQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        properties = new IngestProperties();
+        properties.setCapacity(2);
+        properties.setBatchSize(10);
+        registry = new SimpleMeterRegistry();
+        userCache = new UserCache(new UserCacheProperties());
+        queue = new PostIngestQueue(postService, userCache, properties, registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        queue.stop();
+    }
+
+    @Test
+    void shouldWriteQueuedPostsAndDrainOnStop() {
+        when(postService.createPosts(anyList())).thenAnswer(invocation -> {
+            List<Post> posts = invocation.getArgument(0);
+            List<BatchItemResult> results = new ArrayList<>();
+            for (Post post : posts) {
+                results.add(post.getUserId() == 1
+                        ? BatchItemResult.success(HttpStatus.CREATED, new Post(10, post.getUserId(), post.getTitle(), post.getBody()))
+                        : BatchItemResult.failure(HttpStatus.NOT_FOUND, null, "User with ID: 2 does not exist."));
+            }
+            return results;
+        });
+        queue.start();
+
+        IngestStatus first = queue.submit(new Post(5, 1, "Title", "Body"));
+        IngestStatus second = queue.submit(new Post(null, 2, "Title", "Body"));
+        queue.stop();
+
+        assertEquals(IngestStatus.State.QUEUED, first.getState());
+        assertEquals(new IngestStatus(first.getTrackingId(), IngestStatus.State.CREATED, 10, 201, null),
+                queue.getStatus(first.getTrackingId()).orElseThrow());
+        assertEquals(new IngestStatus(second.getTrackingId(), IngestStatus.State.FAILED, null, 404, "User with ID: 2 does not exist."),
+                queue.getStatus(second.getTrackingId()).orElseThrow());
+        assertEquals(1, registry.get("post.ingest.posts").tag("result", "created").counter().count());
+        assertEquals(1, registry.get("post.ingest.posts").tag("result", "failed").counter().count());
+        assertFalse(queue.isRunning());
+    }
+
+    @Test
+    void shouldRejectWhenFull() throws InterruptedException {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(postService.createPosts(anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            List<Post> posts = invocation.getArgument(0);
+            return posts.stream().map(post -> BatchItemResult.success(HttpStatus.CREATED, post)).toList();
+        });
+        queue.start();
+
+        queue.submit(new Post(null, 1, "Title", "Body"));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        queue.submit(new Post(null, 1, "Title", "Body"));
+        queue.submit(new Post(null, 1, "Title", "Body"));
+
+        assertThrows(IngestQueueFullException.class, () -> queue.submit(new Post(null, 1, "Title", "Body")));
+        assertEquals(1, registry.get("post.ingest.posts").tag("result", "rejected").counter().count());
+        release.countDown();
+    }
+
+    @Test
+    void shouldRejectPostWithoutUser() {
+        queue.start();
+
+        assertThrows(UserNotFoundException.class, () -> queue.submit(new Post(null, null, "Title", "Body")));
+        verifyNoInteractions(postService);
+    }
+
+    @Test
+    void shouldRejectPostOfUserKnownToBeMissing() {
+        userCache.get(66, userId -> null);
+        queue.start();
+
+        assertThrows(UserNotFoundException.class, () -> queue.submit(new Post(null, 66, "Title", "Body")));
+        verifyNoInteractions(postService);
+    }
+
+    @Test
+    void shouldBoundNumberOfKeptStatuses() throws InterruptedException {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(postService.createPosts(anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            List<Post> posts = invocation.getArgument(0);
+            return posts.stream().map(post -> BatchItemResult.success(HttpStatus.CREATED, post)).toList();
+        });
+        properties.setCapacity(10);
+        properties.setStatusMaximumSize(3);
+        registry = new SimpleMeterRegistry();
+        queue = new PostIngestQueue(postService, userCache, properties, registry);
+        queue.start();
+
+        List<IngestStatus> submitted = new ArrayList<>();
+        submitted.add(queue.submit(new Post(null, 1, "Title", "Body")));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 8; i++) {
+            submitted.add(queue.submit(new Post(null, 1, "Title", "Body")));
+        }
+
+        assertEquals(3, registry.get("post.ingest.statuses").gauge().value());
+        assertEquals(3, submitted.stream().filter(status -> queue.getStatus(status.getTrackingId()).isPresent()).count());
+        release.countDown();
+    }
+
+    @Test
+    void shouldWriteEveryAcceptedPostWhenStoppedDuringSubmits() throws InterruptedException {
+        when(postService.createPosts(anyList())).thenAnswer(invocation -> {
+            List<Post> posts = invocation.getArgument(0);
+            return posts.stream().map(post -> BatchItemResult.success(HttpStatus.CREATED, post)).toList();
+        });
+        properties.setCapacity(1000);
+        for (int run = 0; run < 20; run++) {
+            PostIngestQueue stopping = new PostIngestQueue(postService, userCache, properties, registry);
+            stopping.start();
+            List<IngestStatus> accepted = new ArrayList<>();
+            CountDownLatch submitting = new CountDownLatch(1);
+            Thread submitter = new Thread(() -> {
+                submitting.countDown();
+                try {
+                    while (true) {
+                        accepted.add(stopping.submit(new Post(null, 1, "Title", "Body")));
+                    }
+                } catch (IngestQueueFullException e) {
+                    // stopped
+                }
+            });
+            submitter.start();
+            assertTrue(submitting.await(5, TimeUnit.SECONDS));
+            stopping.stop();
+            submitter.join();
+
+            for (IngestStatus status : accepted) {
+                assertEquals(IngestStatus.State.CREATED, stopping.getStatus(status.getTrackingId()).orElseThrow().getState());
+            }
+        }
+    }
+
+    @Test
+    void shouldRejectWhenStopped() {
+        assertThrows(IngestQueueFullException.class, () -> queue.submit(new Post(null, 1, "Title", "Body")));
+        assertTrue(queue.getStatus("unknown").isEmpty());
+    }
+}
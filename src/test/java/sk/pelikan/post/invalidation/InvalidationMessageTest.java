@@ -0,0 +1,53 @@
+package sk.pelikan.post.invalidation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InvalidationMessageTest {
+
+    @Test
+    void shouldRoundTripChangedAndDeletedPosts() {
+        Map<Integer, Long> versions = new LinkedHashMap<>();
+        versions.put(1, 3L);
+        versions.put(1_000_000_050, 0L);
+        versions.put(7, null);
+
+        List<String> payloads = InvalidationMessage.encode("node-a", 1234L, versions);
+
+        assertEquals(List.of("node-a;1234;1:3,1000000050:0,7"), payloads);
+        InvalidationMessage message = InvalidationMessage.decode(payloads.get(0));
+        assertEquals("node-a", message.node());
+        assertEquals(1234L, message.sentAt());
+        assertEquals(versions, message.versions());
+    }
+
+    @Test
+    void shouldSplitLargeChangesIntoPayloadsUnderTheLimit() {
+        Map<Integer, Long> versions = new HashMap<>();
+        for (int id = 1_000_000_000; id < 1_000_002_000; id++) {
+            versions.put(id, 12L);
+        }
+
+        List<String> payloads = InvalidationMessage.encode("node-a", 1234L, versions);
+
+        assertTrue(payloads.size() > 1);
+        Map<Integer, Long> decoded = new HashMap<>();
+        for (String payload : payloads) {
+            assertTrue(payload.length() <= InvalidationMessage.MAX_PAYLOAD_LENGTH);
+            decoded.putAll(InvalidationMessage.decode(payload).versions());
+        }
+        assertEquals(versions, decoded);
+    }
+
+    @Test
+    void shouldRejectInvalidPayload() {
+        assertThrows(IllegalArgumentException.class, () -> InvalidationMessage.decode("node-a;1234"));
+        assertThrows(IllegalArgumentException.class, () -> InvalidationMessage.decode("node-a;1234;x:1"));
+    }
+}
@@ -0,0 +1,95 @@
+package sk.pelikan.post.invalidation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import sk.pelikan.post.cache.PostCache;
+import sk.pelikan.post.cache.PostMembershipIndex;
+import sk.pelikan.post.config.InvalidationProperties;
+import sk.pelikan.post.config.PostCacheProperties;
+import sk.pelikan.post.config.ReplicaProperties;
+import sk.pelikan.post.dao.PostDao;
+import sk.pelikan.post.domain.Post;
+import sk.pelikan.post.domain.PostVersion;
+import sk.pelikan.post.routing.ReadYourWrites;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+public class PostInvalidationListenerTest {
+    private final PostDao postDao = mock(PostDao.class);
+    private final PostMembershipIndex membershipIndex = mock(PostMembershipIndex.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private PostCache postCache;
+    private PostInvalidationPublisher publisher;
+    private PostInvalidationListener listener;
+
+    @BeforeEach
+    void setUp() {
+        InvalidationProperties properties = new InvalidationProperties();
+        properties.setResyncBatchSize(2);
+        postCache = new PostCache(new PostCacheProperties());
+        publisher = new PostInvalidationPublisher(new JdbcTemplate(), properties, registry);
+        listener = new PostInvalidationListener(properties, new DataSourceProperties(), publisher, postCache,
+                membershipIndex, new ReadYourWrites(new ReplicaProperties()), postDao, registry);
+        cache(1, 1L);
+        cache(2, 3L);
+        cache(3, 0L);
+    }
+
+    @Test
+    void shouldEvictOutdatedAndDeletedPostsNotifiedByOtherInstance() {
+        Map<Integer, Long> versions = new LinkedHashMap<>();
+        versions.put(1, 2L);
+        versions.put(2, 3L);
+        versions.put(3, null);
+        versions.put(4, 0L);
+
+        listener.apply(InvalidationMessage.encode("other", 1_000L, versions).get(0), 1_250L);
+
+        assertEquals(Set.of(2), postCache.versions().keySet());
+        verify(membershipIndex).stored(List.of(1, 2, 4));
+        assertEquals(2, registry.get("post.invalidation.evictions").tag("source", "notification").counter().count());
+        assertEquals(250, registry.get("post.invalidation.lag").timer().totalTime(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void shouldSkipOwnNotifications() {
+        listener.apply(InvalidationMessage.encode(publisher.getNode(), 1_000L, Map.of(1, 5L)).get(0), 1_250L);
+
+        assertEquals(Set.of(1, 2, 3), postCache.versions().keySet());
+        verifyNoInteractions(membershipIndex);
+        assertEquals(1, registry.get("post.invalidation.notifications").tag("direction", "received").counter().count());
+    }
+
+    @Test
+    void shouldEvictCachedPostsChangedOrDeletedWhileDisconnected() {
+        when(postDao.findVersions(anyCollection())).thenAnswer(invocation -> {
+            List<PostVersion> stored = List.of(new PostVersion(1, 1L), new PostVersion(2, 4L));
+            return stored.stream().filter(version -> invocation.<Collection<Integer>>getArgument(0).contains(version.getId())).toList();
+        });
+
+        listener.resync();
+
+        assertEquals(Set.of(1), postCache.versions().keySet());
+        verify(postDao, times(2)).findVersions(anyCollection());
+        assertEquals(2, registry.get("post.invalidation.evictions").tag("source", "resync").counter().count());
+    }
+
+    private void cache(Integer id, Long version) {
+        Post post = new Post(id, 1, "Title", "Body");
+        post.setVersion(version);
+        postCache.get(id, key -> Optional.of(post));
+    }
+}
@@ -0,0 +1,81 @@
+package sk.pelikan.post.invalidation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import sk.pelikan.post.config.InvalidationProperties;
+import sk.pelikan.post.domain.Post;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.*;
+
+public class PostInvalidationPublisherTest {
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private InvalidationProperties properties;
+    private PostInvalidationPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        properties = new InvalidationProperties();
+        properties.setEnabled(true);
+        publisher = new PostInvalidationPublisher(jdbcTemplate, properties, registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void shouldSendChangesOfTransactionInOneNotificationBeforeCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        Post post = new Post(1, 1, "Title", "Body");
+        post.setVersion(2L);
+
+        publisher.changed(List.of(post));
+        publisher.deleted(List.of(5));
+        verifyNoInteractions(jdbcTemplate);
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(jdbcTemplate).queryForObject(eq("SELECT pg_notify(?, ?)"), eq(Object.class), eq("post_invalidation"), payload.capture());
+        InvalidationMessage message = InvalidationMessage.decode((String) payload.getValue());
+        assertEquals(publisher.getNode(), message.node());
+        Map<Integer, Long> versions = new HashMap<>();
+        versions.put(1, 2L);
+        versions.put(5, null);
+        assertEquals(versions, message.versions());
+        assertEquals(1, registry.get("post.invalidation.notifications").tag("direction", "sent").counter().count());
+        assertNull(TransactionSynchronizationManager.getResource(publisher));
+    }
+
+    @Test
+    void shouldNotSendWhenRolledBackOrDisabled() {
+        TransactionSynchronizationManager.initSynchronization();
+        publisher.deleted(List.of(5));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        properties.setEnabled(false);
+        publisher.deleted(List.of(6));
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
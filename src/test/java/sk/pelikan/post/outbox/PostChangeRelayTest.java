@@ -0,0 +1,86 @@
+package sk.pelikan.post.outbox;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionOperations;
+import sk.pelikan.post.config.OutboxProperties;
+import sk.pelikan.post.dao.PostChangeDao;
+import sk.pelikan.post.domain.Post;
+import sk.pelikan.post.domain.PostChange;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PostChangeRelayTest {
+    @Mock
+    private PostChangeDao postChangeDao;
+    @Mock
+    private PostChangeSink sink;
+    private SimpleMeterRegistry registry;
+    private PostChangeRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        OutboxProperties properties = new OutboxProperties();
+        properties.setBatchSize(2);
+        registry = new SimpleMeterRegistry();
+        relay = new PostChangeRelay(postChangeDao, sink, TransactionOperations.withoutTransaction(), properties, registry);
+    }
+
+    @Test
+    void shouldNumberBatchesAfterLastOffsetAndPublishThem() {
+        Instant now = Instant.now();
+        PostChange first = PostChange.of(PostChange.Type.CREATED, new Post(1, 1, "Title", "Body"), now);
+        PostChange second = PostChange.of(PostChange.Type.UPDATED, new Post(1, 1, "New Title", "Body"), now);
+        PostChange third = PostChange.deleted(1, now);
+
+        when(postChangeDao.findUnpublished(Limit.of(2))).thenReturn(List.of(first, second), List.of(third));
+        when(postChangeDao.findLastOffset()).thenReturn(7L, 9L);
+
+        int published = relay.relay();
+
+        assertEquals(3, published);
+        assertEquals(8L, first.getStreamOffset());
+        assertEquals(9L, second.getStreamOffset());
+        assertEquals(10L, third.getStreamOffset());
+        verify(sink).publish(List.of(first, second));
+        verify(sink).publish(List.of(third));
+        assertEquals(3, registry.get("post.outbox.published").counter().count());
+    }
+
+    @Test
+    void shouldNotPublishWhenOutboxIsEmpty() {
+        when(postChangeDao.findUnpublished(Limit.of(2))).thenReturn(List.of());
+
+        assertEquals(0, relay.relay());
+        verifyNoInteractions(sink);
+    }
+
+    @Test
+    void shouldKeepLastOffsetWhenCleaningUp() {
+        when(postChangeDao.findLastOffset()).thenReturn(10L);
+        when(postChangeDao.findLastOffsetBefore(any())).thenReturn(10L);
+        when(postChangeDao.deleteUpTo(9L)).thenReturn(9);
+
+        assertEquals(9, relay.cleanUp());
+    }
+
+    @Test
+    void shouldNotCleanUpWhenNothingIsOldEnough() {
+        when(postChangeDao.findLastOffset()).thenReturn(10L);
+        when(postChangeDao.findLastOffsetBefore(any())).thenReturn(null);
+
+        assertEquals(0, relay.cleanUp());
+        verify(postChangeDao, never()).deleteUpTo(anyLong());
+    }
+}
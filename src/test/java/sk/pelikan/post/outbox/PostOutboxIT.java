@@ -0,0 +1,98 @@
+package sk.pelikan.post.outbox;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.client.RestTemplate;
+import sk.pelikan.post.dao.PostChangeDao;
+import sk.pelikan.post.dao.PostDao;
+import sk.pelikan.post.domain.Post;
+import sk.pelikan.post.domain.User;
+import sk.pelikan.post.service.PostService;
+
+import java.net.URI;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "post.outbox.relay-interval=1h")
+@AutoConfigureMockMvc
+public class PostOutboxIT {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private PostService postService;
+    @Autowired
+    private PostChangeRelay relay;
+    @Autowired
+    private PostDao postDao;
+    @Autowired
+    private PostChangeDao postChangeDao;
+    @MockBean
+    private RestTemplate restTemplate;
+
+    @BeforeEach
+    void setUp() {
+        postDao.deleteAll();
+        postChangeDao.deleteAll();
+    }
+
+    @Test
+    public void shouldPublishChangesInOrderAndResumeFromOffset() throws Exception {
+        when(restTemplate.getForObject(URI.create("https://jsonplaceholder.typicode.com/users/1"), User.class)).thenReturn(new User(1, "User Name"));
+
+        Post created = postService.createPost(new Post(null, 1, "Title", "Body"));
+        Post updated = new Post(created.getId(), 1, "New Title", "Body");
+        postService.updatePost(updated);
+        postService.deletePost(created.getId());
+
+        mockMvc.perform(get("/posts/changes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").isEmpty())
+                .andExpect(jsonPath("$.next").value(0));
+
+        relay.relay();
+
+        mockMvc.perform(get("/posts/changes").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].offset").value(1))
+                .andExpect(jsonPath("$.items[0].type").value("CREATED"))
+                .andExpect(jsonPath("$.items[0].postId").value(created.getId()))
+                .andExpect(jsonPath("$.items[0].version").value(0))
+                .andExpect(jsonPath("$.items[1].type").value("UPDATED"))
+                .andExpect(jsonPath("$.items[1].title").value("New Title"))
+                .andExpect(jsonPath("$.items[1].version").value(1))
+                .andExpect(jsonPath("$.next").value(2));
+        mockMvc.perform(get("/posts/changes").param("since", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].offset").value(3))
+                .andExpect(jsonPath("$.items[0].type").value("DELETED"))
+                .andExpect(jsonPath("$.next").value(3));
+    }
+
+    @Test
+    public void shouldRejectOffsetsThatAreNoLongerRetained() throws Exception {
+        when(restTemplate.getForObject(URI.create("https://jsonplaceholder.typicode.com/users/1"), User.class)).thenReturn(new User(1, "User Name"));
+        postService.createPost(new Post(null, 1, "Title", "Body"));
+        postService.createPost(new Post(null, 1, "Title", "Body"));
+        postService.createPost(new Post(null, 1, "Title", "Body"));
+        relay.relay();
+        Long lastOffset = postChangeDao.findLastOffset();
+        postChangeDao.deleteUpTo(lastOffset - 1);
+
+        mockMvc.perform(get("/posts/changes").param("since", String.valueOf(lastOffset - 2)))
+                .andExpect(status().isGone());
+        mockMvc.perform(get("/posts/changes").param("since", String.valueOf(lastOffset - 1)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].offset").value(lastOffset));
+        mockMvc.perform(get("/posts/changes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].offset").value(lastOffset));
+    }
+}
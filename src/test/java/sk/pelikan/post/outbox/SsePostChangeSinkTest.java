@@ -0,0 +1,66 @@
+package sk.pelikan.post.outbox;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import sk.pelikan.post.domain.PostChange;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class SsePostChangeSinkTest {
+    private SsePostChangeSink sink;
+    private SseEmitter emitter;
+    private PostChange change;
+
+    @BeforeEach
+    void setUp() {
+        sink = new SsePostChangeSink();
+        emitter = mock(SseEmitter.class);
+        sink.subscribe(emitter);
+        change = PostChange.deleted(1, Instant.now());
+        change.setStreamOffset(1L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void shouldSendRightAwayOutsideOfTransaction() throws IOException {
+        sink.publish(List.of(change));
+
+        verify(emitter).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+    @Test
+    void shouldSendOnlyAfterTransactionCommits() throws IOException {
+        TransactionSynchronizationManager.initSynchronization();
+
+        sink.publish(List.of(change));
+        verify(emitter, never()).send(any(SseEmitter.SseEventBuilder.class));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(emitter).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+    @Test
+    void shouldDropSubscriberThatFails() throws IOException {
+        doThrow(new IOException("Broken pipe")).when(emitter).send(any(SseEmitter.SseEventBuilder.class));
+
+        sink.publish(List.of(change));
+
+        assertEquals(0, sink.getSubscriberCount());
+    }
+}
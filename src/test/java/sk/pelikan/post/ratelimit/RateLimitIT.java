@@ -0,0 +1,95 @@
+package sk.pelikan.post.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import sk.pelikan.post.domain.Post;
+import sk.pelikan.post.service.PostService;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "post.rate-limit.enabled=true",
+        "post.rate-limit.api-keys=first,second",
+        "post.rate-limit.endpoints.get-post.capacity=2",
+        "post.rate-limit.endpoints.get-post.refill-per-second=0.01",
+        "post.rate-limit.endpoints.create-post.capacity=100",
+        "post.rate-limit.user-writes.capacity=1",
+        "post.rate-limit.user-writes.refill-per-second=0.01",
+        "post.outbox.relay-interval=1h"
+})
+@AutoConfigureMockMvc
+public class RateLimitIT {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper jsonMapper;
+    @MockBean
+    private PostService postService;
+
+    @Test
+    public void shouldLimitEachClientOfEndpoint() throws Exception {
+        when(postService.getPost(1)).thenReturn(Optional.of(new Post(1, 1, "Title", "Body")));
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/posts/1").header("X-API-Key", "first")).andExpect(status().isOk());
+        }
+        mockMvc.perform(get("/posts/1").header("X-API-Key", "first"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "100"));
+        mockMvc.perform(get("/posts/1").header("X-API-Key", "second")).andExpect(status().isOk());
+        verify(postService, times(3)).getPost(1);
+    }
+
+    @Test
+    public void shouldLimitUnknownApiKeysByRemoteAddress() throws Exception {
+        when(postService.getPost(2)).thenReturn(Optional.of(new Post(2, 1, "Title", "Body")));
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/posts/2").header("X-API-Key", "rotated-" + i)).andExpect(status().isOk());
+        }
+        mockMvc.perform(get("/posts/2").header("X-API-Key", "rotated-2")).andExpect(status().isTooManyRequests());
+        mockMvc.perform(get("/posts/2")).andExpect(status().isTooManyRequests());
+        verify(postService, times(2)).getPost(2);
+    }
+
+    @Test
+    public void shouldLimitWritesOfEachUser() throws Exception {
+        Post post = new Post(null, 7, "Title", "Body");
+        when(postService.createPost(any(Post.class))).thenReturn(new Post(1, 7, "Title", "Body"));
+
+        mockMvc.perform(post("/posts").contentType(MediaType.APPLICATION_JSON).content(jsonMapper.writeValueAsString(post)))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/posts").contentType(MediaType.APPLICATION_JSON).content(jsonMapper.writeValueAsString(post)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+        mockMvc.perform(post("/posts/batch").contentType(MediaType.APPLICATION_JSON).content(jsonMapper.writeValueAsString(List.of(post))))
+                .andExpect(status().isTooManyRequests());
+        verify(postService, times(1)).createPost(any(Post.class));
+        verify(postService, never()).createPosts(any());
+    }
+
+    @Test
+    public void shouldRejectBatchWithMorePostsOfUserThanCapacity() throws Exception {
+        Post post = new Post(null, 8, "Title", "Body");
+
+        mockMvc.perform(post("/posts/batch").contentType(MediaType.APPLICATION_JSON).content(jsonMapper.writeValueAsString(List.of(post, post))))
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(header().doesNotExist(HttpHeaders.RETRY_AFTER));
+        verify(postService, never()).createPosts(any());
+    }
+}
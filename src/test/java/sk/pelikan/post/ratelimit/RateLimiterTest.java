@@ -0,0 +1,127 @@
+package sk.pelikan.post.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import sk.pelikan.post.config.RateLimitProperties;
+import sk.pelikan.post.exception.RateLimitExceededException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimiterTest {
+    private final AtomicLong nanos = new AtomicLong();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private RateLimitProperties properties;
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RateLimitProperties();
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+        limit.setCapacity(3);
+        limit.setRefillPerSecond(2);
+        properties.getEndpoints().put("get-post", limit);
+        properties.setUserWrites(limit);
+        rateLimiter = new RateLimiter(properties, registry, nanos::get);
+    }
+
+    @Test
+    void shouldAllowBurstThenRejectUntilRefilled() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.acquireClient("get-post", "client");
+        }
+        RateLimitExceededException e = assertThrows(RateLimitExceededException.class, () -> rateLimiter.acquireClient("get-post", "client"));
+        assertEquals(Duration.ofMillis(500), e.getRetryAfter());
+        assertEquals("1", e.getRetryAfterSeconds());
+
+        nanos.addAndGet(Duration.ofMillis(500).toNanos());
+        rateLimiter.acquireClient("get-post", "client");
+        assertThrows(RateLimitExceededException.class, () -> rateLimiter.acquireClient("get-post", "client"));
+
+        assertEquals(4, registry.get("post.rate.limit.requests").tags("scope", "client", "endpoint", "get-post", "result", "allowed").counter().count());
+        assertEquals(2, registry.get("post.rate.limit.requests").tags("scope", "client", "endpoint", "get-post", "result", "rejected").counter().count());
+    }
+
+    @Test
+    void shouldKeepSeparateBucketsPerClientAndSkipUnlimitedEndpoints() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.acquireClient("get-post", "first");
+        }
+        assertThrows(RateLimitExceededException.class, () -> rateLimiter.acquireClient("get-post", "first"));
+
+        rateLimiter.acquireClient("get-post", "second");
+        for (int i = 0; i < 10; i++) {
+            rateLimiter.acquireClient("delete-post", "first");
+        }
+    }
+
+    @Test
+    void shouldTakeOneTokenPerPostOfUser() {
+        rateLimiter.acquireUserWrites(Map.of(1, 2, 2, 3));
+
+        assertThrows(RateLimitExceededException.class, () -> rateLimiter.acquireUserWrites(Map.of(1, 2)));
+        rateLimiter.acquireUserWrites(Map.of(1, 1));
+        assertThrows(RateLimitExceededException.class, () -> rateLimiter.acquireUserWrites(Map.of(2, 1)));
+    }
+
+    @Test
+    void shouldTakeNoTokensOfAnyUserWhenOneIsOverLimit() {
+        rateLimiter.acquireUserWrites(Map.of(2, 2));
+
+        RateLimitExceededException e = assertThrows(RateLimitExceededException.class, () -> rateLimiter.acquireUserWrites(Map.of(1, 3, 2, 3)));
+        assertEquals(Duration.ofSeconds(1), e.getRetryAfter());
+        rateLimiter.acquireUserWrites(Map.of(1, 3));
+
+        nanos.addAndGet(e.getRetryAfter().toNanos());
+        rateLimiter.acquireUserWrites(Map.of(2, 3));
+    }
+
+    @Test
+    void shouldRejectMorePostsOfUserThanCapacityAsNotRetryable() {
+        RateLimitExceededException e = assertThrows(RateLimitExceededException.class, () -> rateLimiter.acquireUserWrites(Map.of(1, 1, 2, 4)));
+
+        assertFalse(e.isRetryable());
+        rateLimiter.acquireUserWrites(Map.of(1, 3));
+    }
+
+    @Test
+    void shouldNeverAllowMoreThanCapacityUnderContention() throws Exception {
+        properties.getEndpoints().get("get-post").setCapacity(1_000);
+        properties.getEndpoints().get("get-post").setRefillPerSecond(0.001);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Integer>> tasks = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                tasks.add(() -> {
+                    int allowed = 0;
+                    for (int i = 0; i < 1_000; i++) {
+                        try {
+                            rateLimiter.acquireClient("get-post", "client");
+                            allowed++;
+                        } catch (RateLimitExceededException e) {
+                            // over the limit
+                        }
+                    }
+                    return allowed;
+                });
+            }
+            int allowed = 0;
+            for (Future<Integer> result : executor.invokeAll(tasks)) {
+                allowed += result.get();
+            }
+            assertEquals(1_000, allowed);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package sk.pelikan.post.routing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import sk.pelikan.post.config.ReplicaProperties;
+import sk.pelikan.post.domain.Post;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReplicaRoutingDataSourceTest {
+    @Mock
+    private DataSource primary;
+    @Mock
+    private DataSource replica1;
+    @Mock
+    private DataSource replica2;
+    @Mock
+    private Connection connection;
+    private SimpleMeterRegistry registry;
+    private ReplicaRoutingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-0", replica1);
+        replicas.put("replica-1", replica2);
+        registry = new SimpleMeterRegistry();
+        dataSource = new ReplicaRoutingDataSource(primary, replicas, Duration.ofHours(1), registry);
+        dataSource.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        dataSource.destroy();
+    }
+
+    @Test
+    void shouldSendWritesToPrimary() throws SQLException {
+        when(primary.getConnection()).thenReturn(connection);
+
+        assertSame(connection, dataSource.getConnection());
+        verifyNoInteractions(replica1, replica2);
+    }
+
+    @Test
+    void shouldBalanceReadOnlyTransactionsOverReplicas() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replica1.getConnection()).thenReturn(connection);
+        when(replica2.getConnection()).thenReturn(connection);
+
+        dataSource.getConnection();
+        dataSource.getConnection();
+        dataSource.getConnection();
+
+        verify(replica1, times(2)).getConnection();
+        verify(replica2, times(1)).getConnection();
+        verifyNoInteractions(primary);
+    }
+
+    @Test
+    void shouldSkipReplicaThatFailedAndFallBackToPrimary() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replica1.getConnection()).thenThrow(new SQLException("Connection refused"));
+        when(replica2.getConnection()).thenReturn(connection);
+        when(primary.getConnection()).thenReturn(connection);
+
+        dataSource.getConnection();
+        dataSource.getConnection();
+        dataSource.getConnection();
+
+        assertFalse(dataSource.isHealthy("replica-0"));
+        verify(replica1, times(1)).getConnection();
+        verify(replica2, times(2)).getConnection();
+        verify(primary, times(1)).getConnection();
+        assertEquals(1, registry.get("post.datasource.replica.fallbacks").counter().count());
+        assertEquals(0, registry.get("post.datasource.replica.healthy").tag("replica", "replica-0").gauge().value());
+    }
+
+    @Test
+    void shouldReturnReplicaToRotationOnceItPassesTheCheck() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replica1.getConnection()).thenThrow(new SQLException("Connection refused")).thenReturn(connection);
+        when(replica2.getConnection()).thenReturn(connection);
+        when(primary.getConnection()).thenReturn(connection);
+        when(connection.isValid(anyInt())).thenReturn(true);
+
+        dataSource.getConnection();
+        assertFalse(dataSource.isHealthy("replica-0"));
+
+        dataSource.checkReplicas();
+
+        assertTrue(dataSource.isHealthy("replica-0"));
+        assertTrue(dataSource.isHealthy("replica-1"));
+    }
+
+    @Test
+    void shouldSendReadsOfRecentWritesToPrimary() throws SQLException {
+        ReplicaProperties properties = new ReplicaProperties();
+        properties.setEnabled(true);
+        ReadYourWrites readYourWrites = new ReadYourWrites(properties);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(primary.getConnection()).thenReturn(connection);
+        when(replica1.getConnection()).thenReturn(connection);
+
+        readYourWrites.written(List.of(new Post(1, 7, "Title", "Body")));
+        readYourWrites.readPosts(List.of(2, 1), this::connect);
+        readYourWrites.readUserPosts(7, this::connect);
+        readYourWrites.readPosts(List.of(2), this::connect);
+
+        verify(primary, times(2)).getConnection();
+        verify(replica1, times(1)).getConnection();
+    }
+
+    private Connection connect() {
+        try {
+            return dataSource.getConnection();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package sk.pelikan.post.routing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.web.client.RestTemplate;
+import sk.pelikan.post.domain.Post;
+import sk.pelikan.post.domain.User;
+import sk.pelikan.post.service.PostService;
+
+import java.net.URI;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+        "post.replicas.enabled=true",
+        "post.replicas.instances[0].jdbc-url=${spring.datasource.url}",
+        "post.replicas.instances[0].username=${spring.datasource.username}",
+        "post.replicas.instances[0].password=${spring.datasource.password}",
+        "post.replicas.instances[0].maximum-pool-size=2",
+        "post.outbox.relay-interval=1h"
+})
+public class ReplicaRoutingIT {
+    @Autowired
+    private PostService postService;
+    @Autowired
+    private MeterRegistry registry;
+    @MockBean
+    private RestTemplate restTemplate;
+
+    @Test
+    public void shouldServeReadOnlyTransactionsFromReplica() {
+        long before = acquisitions("replica-0");
+
+        postService.listPosts(99, null, 10);
+
+        assertThat(acquisitions("replica-0")).isGreaterThan(before);
+    }
+
+    @Test
+    public void shouldReadOwnWritesFromPrimary() {
+        when(restTemplate.getForObject(URI.create("https://jsonplaceholder.typicode.com/users/5"), User.class)).thenReturn(new User(5, "User Name"));
+        Post created = postService.createPost(new Post(null, 5, "Title", "Body"));
+        long replicaBefore = acquisitions("replica-0");
+        long primaryBefore = acquisitions("primary");
+
+        assertThat(postService.listPosts(5, null, 10).getItems()).extracting("id").contains(created.getId());
+
+        assertThat(acquisitions("replica-0")).isEqualTo(replicaBefore);
+        assertThat(acquisitions("primary")).isGreaterThan(primaryBefore);
+    }
+
+    private long acquisitions(String pool) {
+        return registry.get("hikaricp.connections.acquire").tag("pool", pool).timer().count();
+    }
+}
@@ -0,0 +1,55 @@
+package sk.pelikan.post.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionOperations;
+import sk.pelikan.post.domain.Post;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemoryPostSearchIndexTest {
+    private InMemoryPostSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InMemoryPostSearchIndex(null, TransactionOperations.withoutTransaction());
+        index.index(List.of(
+                new Post(1, 1, "Caching posts", "Caffeine keeps hot posts in memory"),
+                new Post(2, 1, "Paging", "Keyset paging instead of offset, no caching involved"),
+                new Post(3, 2, "Caching users", "Negative caching of missing users")));
+    }
+
+    @Test
+    void search_shouldRequireAllWordsAndRankTitleMatchesFirst() {
+        assertEquals(List.of(3, 1, 2), ids(index.search("caching", null, null, null, 10)));
+        assertEquals(List.of(3), ids(index.search("CACHING, users!", null, null, null, 10)));
+        assertEquals(List.of(), ids(index.search("caching elasticsearch", null, null, null, 10)));
+    }
+
+    @Test
+    void search_shouldFilterByUser() {
+        assertEquals(List.of(1, 2), ids(index.search("caching", 1, null, null, 10)));
+    }
+
+    @Test
+    void search_shouldContinueAfterRankAndId() {
+        List<SearchHit> firstPage = index.search("caching", null, null, null, 2);
+        SearchHit last = firstPage.get(1);
+
+        assertEquals(List.of(2), ids(index.search("caching", null, last.getRank(), last.getPost().getId(), 2)));
+    }
+
+    @Test
+    void index_shouldReplaceAndRemovePosts() {
+        index.index(List.of(new Post(2, 1, "Paging", "Keyset paging instead of offset")));
+        index.remove(List.of(3));
+
+        assertEquals(List.of(1), ids(index.search("caching", null, null, null, 10)));
+    }
+
+    private static List<Integer> ids(List<SearchHit> hits) {
+        return hits.stream().map(hit -> hit.getPost().getId()).toList();
+    }
+}
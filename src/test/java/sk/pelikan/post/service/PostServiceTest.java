@@ -1,23 +1,59 @@
 package sk.pelikan.post.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
+import sk.pelikan.post.cache.PostCache;
+import sk.pelikan.post.cache.PostMembershipIndex;
+import sk.pelikan.post.cache.UserCache;
+import sk.pelikan.post.client.ExternalApiClient;
+import sk.pelikan.post.client.ExternalApiGuard;
+import sk.pelikan.post.concurrent.SingleFlight;
+import sk.pelikan.post.config.ExternalApiProperties;
+import sk.pelikan.post.config.InvalidationProperties;
+import sk.pelikan.post.config.MembershipProperties;
+import sk.pelikan.post.config.PostIdProperties;
+import sk.pelikan.post.config.PostCacheProperties;
+import sk.pelikan.post.config.ReplicaProperties;
+import sk.pelikan.post.config.UpdateProperties;
+import sk.pelikan.post.config.UserCacheProperties;
 import sk.pelikan.post.dao.PostDao;
+import sk.pelikan.post.domain.BatchItemResult;
+import sk.pelikan.post.domain.ImportResult;
 import sk.pelikan.post.domain.Post;
+import sk.pelikan.post.domain.PostChange;
+import sk.pelikan.post.domain.PostPage;
+import sk.pelikan.post.domain.PostSummary;
 import sk.pelikan.post.domain.User;
 import sk.pelikan.post.exception.ExternalApiException;
+import sk.pelikan.post.exception.InvalidCursorException;
 import sk.pelikan.post.exception.PostNotFoundException;
+import sk.pelikan.post.exception.PostVersionConflictException;
 import sk.pelikan.post.exception.UserNotFoundException;
+import sk.pelikan.post.invalidation.PostInvalidationPublisher;
+import sk.pelikan.post.outbox.PostOutbox;
+import sk.pelikan.post.routing.ReadYourWrites;
+import sk.pelikan.post.search.InMemoryPostSearchIndex;
 import sk.pelikan.post.service.impl.PostServiceImpl;
 
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -30,13 +66,28 @@ public class PostServiceTest {
     private PostDao postDao;
     @Mock
     private RestTemplate restTemplate;
-    @InjectMocks
+    @Mock
+    private PostOutbox outbox;
     private PostServiceImpl postService;
+    private SimpleMeterRegistry registry;
+    private UpdateProperties updateProperties;
+    private InMemoryPostSearchIndex searchIndex;
+    private MembershipProperties membershipProperties;
+    private PostMembershipIndex membershipIndex;
     private Post post;
     private User user;
 
     @BeforeEach
     void setUp() {
+        registry = new SimpleMeterRegistry();
+        updateProperties = new UpdateProperties();
+        searchIndex = new InMemoryPostSearchIndex(postDao, TransactionOperations.withoutTransaction());
+        membershipProperties = new MembershipProperties();
+        membershipIndex = new PostMembershipIndex(postDao, TransactionOperations.withoutTransaction(), membershipProperties, new PostIdProperties(), registry);
+        postService = new PostServiceImpl(new ExternalApiClient(restTemplate, new ExternalApiProperties(), new ExternalApiGuard(new ExternalApiProperties()), registry), postDao, new UserCache(new UserCacheProperties()), new PostCache(new PostCacheProperties()),
+                new SingleFlight<>("post-imports", Duration.ofSeconds(1)), new SingleFlight<>("user-lookups", Duration.ofSeconds(1)), updateProperties, searchIndex, outbox,
+                TransactionOperations.withoutTransaction(), new ReadYourWrites(new ReplicaProperties()), membershipIndex,
+                new PostInvalidationPublisher(new JdbcTemplate(), new InvalidationProperties(), registry), new PostIdProperties(), registry);
         post = new Post(1, 1, "Title", "Body");
         user = new User(1, "User Name");
     }
@@ -47,31 +98,65 @@ public class PostServiceTest {
         void shouldSavePostWhenUserExists() {
             Post expectedPost = new Post(1, 1, "Title", "Body");
 
-            when(restTemplate.getForObject("https://jsonplaceholder.typicode.com/users/1", User.class)).thenReturn(user);
+            when(restTemplate.getForObject(URI.create("https://jsonplaceholder.typicode.com/users/1"), User.class)).thenReturn(user);
             when(postDao.save(post)).thenReturn(expectedPost);
+            post.setVersion(7L);
 
             Post savedPost = postService.createPost(post);
 
-            assertEquals(post.getId(), savedPost.getId());
+            assertNull(post.getId(), "client supplied IDs must not reach the database");
+            assertNull(post.getVersion(), "client supplied versions must not reach the database");
+            assertEquals(expectedPost.getId(), savedPost.getId());
             assertEquals(post.getUserId(), savedPost.getUserId());
             assertEquals(post.getTitle(), savedPost.getTitle());
             assertEquals(post.getBody(), savedPost.getBody());
+            verify(outbox).record(PostChange.Type.CREATED, List.of(expectedPost));
         }
 
         @Test
         void whenUserNotFound_thenThrowUserNotFoundException() {
             int invalidUserId = 66;
 
-            when(restTemplate.getForObject("https://jsonplaceholder.typicode.com/users/66", User.class)).thenReturn(null);
+            when(restTemplate.getForObject(URI.create("https://jsonplaceholder.typicode.com/users/66"), User.class)).thenReturn(null);
 
             assertThrows(UserNotFoundException.class, () -> postService.createPost(new Post(1, invalidUserId, "Title", "Body")));
         }
 
         @Test
         void whenExternalApiCommunicationFails_thenThrowExternalApiException() {
-            when(restTemplate.getForObject("https://jsonplaceholder.typicode.com/users/1", User.class)).thenThrow(new RestClientException("Communication error"));
+            when(restTemplate.getForObject(URI.create("https://jsonplaceholder.typicode.com/users/1"), User.class)).thenThrow(new RestClientException("Communication error"));
             assertThrows(ExternalApiException.class, () -> postService.createPost(new Post(1, 1, "Title", "Body")));
         }
+
+        @Test
+        void whenExternalApiReturnsNotFound_thenThrowUserNotFoundException() {
+            when(restTemplate.getForObject(URI.create("https://jsonplaceholder.typicode.com/users/66"), User.class)).thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null));
+
+            assertThrows(UserNotFoundException.class, () -> postService.createPost(new Post(1, 66, "Title", "Body")));
+        }
+
+        @Test
+        void whenUserWasVerifiedBefore_thenExternalApiIsNotCalledAgain() {
+            when(restTemplate.getForObject(URI.create("https://jsonplaceholder.typicode.com/users/1"), User.class)).thenReturn(user);
+            when(postDao.save(any(Post.class))).thenReturn(new Post(1, 1, "Title", "Body"), new Post(2, 1, "Other Title", "Other Body"));
+
+            postService.createPost(new Post(1, 1, "Title", "Body"));
+            postService.createPost(new Post(2, 1, "Other Title", "Other Body"));
+
+            verify(restTemplate, times(1)).getForObject(URI.create("https://jsonplaceholder.typicode.com/users/1"), User.class);
+            verify(postDao, times(2)).save(any(Post.class));
+        }
+
+        @Test
+        void whenUserWasNotFoundBefore_thenExternalApiIsNotCalledAgain() {
+            when(restTemplate.getForObject(URI.create("https://jsonplaceholder.typicode.com/users/66"), User.class)).thenReturn(null);
+
+            assertThrows(UserNotFoundException.class, () -> postService.createPost(new Post(null, 66, "Title", "Body")));
+            assertThrows(UserNotFoundException.class, () -> postService.createPost(new Post(null, 66, "Title", "Body")));
+
+            verify(restTemplate, times(1)).getForObject(URI.create("https://jsonplaceholder.typicode.com/users/66"), User.class);
+            verify(postDao, never()).save(any(Post.class));
+        }
     }
 
     @Nested
@@ -87,6 +172,7 @@ public class PostServiceTest {
 
             assertTrue(result.isPresent());
             assertEquals(expectedPost, result.get());
+            assertEquals(1, registry.get("post.lookups").tag("result", "local").counter().count());
         }
 
         @Test
@@ -95,20 +181,65 @@ public class PostServiceTest {
             Post expectedPost = new Post(postId, 1, "Title", "Body");
 
             when(postDao.findById(postId)).thenReturn(Optional.empty());
-            when(restTemplate.getForObject("https://jsonplaceholder.typicode.com/posts/32", Post.class)).thenReturn(expectedPost);
+            when(restTemplate.getForObject(URI.create("https://jsonplaceholder.typicode.com/posts/32"), Post.class)).thenReturn(expectedPost);
             when(postDao.save(expectedPost)).thenReturn(expectedPost);
 
             Optional<Post> result = postService.getPost(postId);
 
             assertTrue(result.isPresent());
             assertEquals(expectedPost, result.get());
+            assertEquals(1, registry.get("post.lookups").tag("result", "imported").counter().count());
+            assertEquals(1, registry.get("post.external.requests").tags("operation", "fetchPost", "outcome", "success").timer().count());
+        }
+
+        @Test
+        void whenMembershipIndexRulesOutPost_thenDatabaseIsSkipped() {
+            Post expectedPost = new Post(32, 1, "Title", "Body");
+            enableMembershipIndex(1);
+
+            when(restTemplate.getForObject(URI.create("https://jsonplaceholder.typicode.com/posts/32"), Post.class)).thenReturn(expectedPost);
+            when(postDao.save(expectedPost)).thenReturn(expectedPost);
+
+            assertEquals(Optional.of(expectedPost), postService.getPost(32));
+            verify(postDao, never()).findById(any());
+            assertEquals(1, registry.get("post.membership.skipped").tag("source", "database").counter().count());
+        }
+
+        @Test
+        void whenExternalApiReportedPostMissing_thenItIsNotAskedAgain() {
+            enableMembershipIndex();
+
+            when(restTemplate.getForObject(URI.create("https://jsonplaceholder.typicode.com/posts/40"), Post.class)).thenReturn(null);
+
+            assertThrows(PostNotFoundException.class, () -> postService.getPost(40));
+            assertThrows(PostNotFoundException.class, () -> postService.getPost(40));
+            verify(restTemplate, times(1)).getForObject(URI.create("https://jsonplaceholder.typicode.com/posts/40"), Post.class);
+            assertEquals(1, registry.get("post.membership.skipped").tag("source", "external").counter().count());
+        }
+
+        @Test
+        void whenLocalPostIsUnknown_thenNeitherDatabaseNorExternalApiIsAsked() {
+            enableMembershipIndex();
+
+            assertThrows(PostNotFoundException.class, () -> postService.getPost(1_000_000_007));
+            verify(postDao, never()).findById(any());
+            verifyNoInteractions(restTemplate);
+        }
+
+        @Test
+        void whenLocalPostIsMissing_thenExternalApiIsNotAskedEvenWithoutMembershipIndex() {
+            when(postDao.findById(1_000_000_007)).thenReturn(Optional.empty());
+
+            assertThrows(PostNotFoundException.class, () -> postService.getPost(1_000_000_007));
+            verify(postDao, never()).save(any());
+            verifyNoInteractions(restTemplate);
         }
 
         @Test
         void whenExternalApiCallFails_thenThrowExternalApiException() {
             Integer postId = -1;
 
-            when(restTemplate.getForObject("https://jsonplaceholder.typicode.com/posts/32", Post.class)).thenThrow(new RestClientException("Communication error"));
+            when(restTemplate.getForObject(URI.create("https://jsonplaceholder.typicode.com/posts/32"), Post.class)).thenThrow(new RestClientException("Communication error"));
             when(postDao.findById(postId)).thenReturn(Optional.empty());
 
             assertThrows(ExternalApiException.class, () -> postService.getPost(postId));
@@ -117,61 +248,406 @@ public class PostServiceTest {
         void whenNotPostFound_thenThrowPostNotFoundException() {
             Integer postId = 40;
 
-            when(restTemplate.getForObject("https://jsonplaceholder.typicode.com/posts/40", Post.class)).thenReturn(null);
+            when(restTemplate.getForObject(URI.create("https://jsonplaceholder.typicode.com/posts/40"), Post.class)).thenReturn(null);
             when(postDao.findById(postId)).thenReturn(Optional.empty());
 
             assertThrows(PostNotFoundException.class, () -> postService.getPost(postId));
         }
 
+        @Test
+        void whenPostWasReadBefore_thenItShouldBeServedWithoutDatabase() {
+            Integer postId = 1;
+            when(postDao.findById(postId)).thenReturn(Optional.of(new Post(postId, 1, "Title", "Body")));
+
+            Optional<Post> first = postService.getPost(postId);
+            first.get().setTitle("Changed by caller");
+            Optional<Post> second = postService.getPost(postId);
+
+            assertEquals("Title", second.get().getTitle());
+            verify(postDao, times(1)).findById(postId);
+        }
+
+        @Test
+        void whenPostWasImported_thenItShouldBeServedWithoutDatabase() {
+            Integer postId = 32;
+            Post expectedPost = new Post(postId, 1, "Title", "Body");
+
+            when(postDao.findById(postId)).thenReturn(Optional.empty());
+            when(restTemplate.getForObject(URI.create("https://jsonplaceholder.typicode.com/posts/32"), Post.class)).thenReturn(expectedPost);
+            when(postDao.save(expectedPost)).thenReturn(expectedPost);
+
+            postService.getPost(postId);
+            Optional<Post> result = postService.getPost(postId);
+
+            assertEquals(expectedPost, result.get());
+            verify(postDao, times(1)).findById(postId);
+            verify(restTemplate, times(1)).getForObject(URI.create("https://jsonplaceholder.typicode.com/posts/32"), Post.class);
+        }
     }
 
     @Nested
     class updatePost {
         @Test
-        public void shouldUpdatePostSuccessfully() {
+        public void shouldUpdatePostWithSingleStatement() {
             Post updatedPost = new Post(1, 1, "New Title", "New Body");
+            updatedPost.setVersion(1L);
 
-            when(postDao.findById(1)).thenReturn(Optional.of(post));
-            when(postDao.save(post)).thenReturn(updatedPost);
+            when(postDao.updateContent(1, 1, "New Title", "New Body", null)).thenReturn(Optional.of(updatedPost));
 
-            Optional<Post> result = postService.updatePost(updatedPost);
+            Optional<Post> result = postService.updatePost(new Post(1, 1, "New Title", "New Body"));
 
             assertEquals("New Title", result.get().getTitle());
             assertEquals("New Body", result.get().getBody());
+            verify(postDao, never()).findById(any());
+            verify(postDao, never()).save(any());
+        }
+
+        @Test
+        public void whenPostBelongsToOtherUser_thenItIsUpdatedByIdAlone() {
+            Post updatedPost = new Post(1, 2, "New Title", "New Body");
+
+            when(postDao.updateContent(1, 1, "New Title", "New Body", null)).thenReturn(Optional.empty());
+            when(postDao.updateContent(1, null, "New Title", "New Body", null)).thenReturn(Optional.of(updatedPost));
+
+            assertEquals(Optional.of(updatedPost), postService.updatePost(new Post(1, 1, "New Title", "New Body")));
         }
 
         @Test
         public void shouldThrowExceptionWhenPostNotFound() {
-            when(postDao.findById(1)).thenThrow(new PostNotFoundException("Post with ID: 1 does not exist."));
+            when(postDao.updateContent(1, 1, "Title", "Body", null)).thenReturn(Optional.empty());
+            when(postDao.updateContent(1, null, "Title", "Body", null)).thenReturn(Optional.empty());
 
             assertThrows(PostNotFoundException.class, () -> postService.updatePost(new Post(1, 1, "Title", "Body")));
+            verify(restTemplate, never()).getForObject(any(URI.class), any(Class.class));
+        }
+
+        @Test
+        public void shouldImportMissingPostWhenEnabled() {
+            updateProperties.setImportMissing(true);
+            Post external = new Post(32, 1, "Title", "Body");
+            Post updatedPost = new Post(32, 1, "New Title", "New Body");
+
+            when(postDao.updateContent(32, 1, "New Title", "New Body", null)).thenReturn(Optional.empty(), Optional.of(updatedPost));
+            when(postDao.updateContent(32, null, "New Title", "New Body", null)).thenReturn(Optional.empty());
+            when(restTemplate.getForObject(URI.create("https://jsonplaceholder.typicode.com/posts/32"), Post.class)).thenReturn(external);
+            when(postDao.save(external)).thenReturn(external);
+
+            Optional<Post> result = postService.updatePost(new Post(32, 1, "New Title", "New Body"));
+
+            assertEquals(updatedPost, result.get());
+            verify(postDao, times(2)).updateContent(32, 1, "New Title", "New Body", null);
+        }
+
+        @Test
+        public void shouldInvalidateCachedPost() {
+            when(postDao.findById(1)).thenReturn(Optional.of(new Post(1, 1, "Title", "Body")));
+            when(postDao.updateContent(1, 1, "New Title", "New Body", null)).thenReturn(Optional.of(new Post(1, 1, "New Title", "New Body")));
+
+            postService.getPost(1);
+            postService.updatePost(new Post(1, 1, "New Title", "New Body"));
+            postService.getPost(1);
+
+            verify(postDao, times(2)).findById(1);
+        }
+
+        @Test
+        public void shouldRejectUpdateOfOtherVersion() {
+            Post updatedPost = new Post(1, 1, "New Title", "New Body");
+            updatedPost.setVersion(3L);
+
+            when(postDao.updateContent(1, 1, "New Title", "New Body", 3L)).thenReturn(Optional.empty());
+            when(postDao.updateContent(1, null, "New Title", "New Body", 3L)).thenReturn(Optional.empty());
+            when(postDao.existsById(1)).thenReturn(true);
+
+            assertThrows(PostVersionConflictException.class, () -> postService.updatePost(updatedPost));
         }
     }
 
     @Nested
     class deletePost {
         @Test
-        public void shouldDeletePostSuccessfully() {
-            Integer postId = 1;
+        public void shouldDeletePostWithSingleStatement() {
+            when(postDao.deleteIfPresent(1)).thenReturn(1);
 
-            when(postDao.findById(postId)).thenReturn(Optional.of(post));
+            postService.deletePost(1);
 
-            postService.deletePost(postId);
-
-            verify(postDao, times(1)).deleteById(postId);
+            verify(postDao, never()).findById(any());
+            verify(outbox).recordDeleted(List.of(1));
         }
 
         @Test
         public void shouldThrowPostNotFoundExceptionWhenPostDoesNotExist() {
-            Integer postId = 1;
+            when(postDao.deleteIfPresent(1)).thenReturn(0);
 
-            when(postDao.findById(postId)).thenReturn(Optional.empty());
+            assertThrows(PostNotFoundException.class, () -> postService.deletePost(1));
+            verifyNoInteractions(outbox);
+        }
+
+        @Test
+        public void shouldInvalidateCachedPost() {
+            when(postDao.findById(1)).thenReturn(Optional.of(post));
+            when(postDao.deleteIfPresent(1)).thenReturn(1);
 
-            assertThrows(PostNotFoundException.class, () -> {
-                postService.deletePost(postId);
-            });
+            postService.getPost(1);
+            postService.deletePost(1);
+            postService.getPost(1);
 
-            verify(postDao, never()).deleteById(1);
+            verify(postDao, times(2)).findById(1);
         }
+
+        @Test
+        public void shouldRejectDeleteOfOtherVersion() {
+            when(postDao.deleteIfVersion(1, 3L)).thenReturn(0);
+            when(postDao.existsById(1)).thenReturn(true);
+
+            assertThrows(PostVersionConflictException.class, () -> postService.deletePost(1, 3L));
+        }
+
+        @Test
+        public void shouldDeleteOnlyPostOfGivenUser() {
+            when(postDao.deleteIfPresent(1, 2)).thenReturn(0);
+
+            assertThrows(PostNotFoundException.class, () -> postService.deletePost(1, 2, null));
+            verify(postDao, never()).deleteIfPresent(1);
+            verifyNoInteractions(outbox);
+        }
+    }
+
+    @Nested
+    class createPosts {
+        @Test
+        void shouldVerifyEachUserOnceAndSaveAllAcceptedPostsTogether() {
+            Post first = new Post(5, 1, "Title1", "Body1");
+            first.setVersion(7L);
+            Post second = new Post(null, 1, "Title2", "Body2");
+            Post unknownUser = new Post(null, 66, "Title3", "Body3");
+
+            when(restTemplate.getForObject(URI.create("https://jsonplaceholder.typicode.com/users/1"), User.class)).thenReturn(user);
+            when(restTemplate.getForObject(URI.create("https://jsonplaceholder.typicode.com/users/66"), User.class)).thenReturn(null);
+            when(postDao.saveAll(List.of(first, second))).thenReturn(List.of(new Post(10, 1, "Title1", "Body1"), new Post(11, 1, "Title2", "Body2")));
+
+            List<BatchItemResult> results = postService.createPosts(List.of(first, second, unknownUser));
+
+            assertEquals(201, results.get(0).getStatus());
+            assertEquals(10, results.get(0).getId());
+            assertEquals(201, results.get(1).getStatus());
+            assertEquals(11, results.get(1).getId());
+            assertEquals(404, results.get(2).getStatus());
+            assertNull(first.getId());
+            assertNull(first.getVersion());
+            verify(restTemplate, times(1)).getForObject(URI.create("https://jsonplaceholder.typicode.com/users/1"), User.class);
+            verify(postDao, times(1)).saveAll(anyList());
+        }
+
+        @Test
+        void whenUserVerificationFails_thenOnlyItsPostsFail() {
+            Post post = new Post(null, 1, "Title", "Body");
+
+            when(restTemplate.getForObject(URI.create("https://jsonplaceholder.typicode.com/users/1"), User.class)).thenThrow(new RestClientException("Communication error"));
+
+            List<BatchItemResult> results = postService.createPosts(List.of(post));
+
+            assertEquals(500, results.get(0).getStatus());
+            verify(postDao, never()).saveAll(anyList());
+        }
+    }
+
+    @Nested
+    class getPosts {
+        @Test
+        void shouldReadMissingPostsWithOneQueryAndImportUnknownOnes() {
+            Post local = new Post(1, 1, "Title", "Body");
+            Post external = new Post(32, 1, "External", "Body");
+
+            when(postDao.findAllById(Set.of(1, 32, 40))).thenReturn(List.of(local));
+            when(restTemplate.getForObject(URI.create("https://jsonplaceholder.typicode.com/posts/32"), Post.class)).thenReturn(external);
+            when(restTemplate.getForObject(URI.create("https://jsonplaceholder.typicode.com/posts/40"), Post.class)).thenReturn(null);
+            when(postDao.save(external)).thenReturn(external);
+
+            List<BatchItemResult> results = postService.getPosts(List.of(1, 32, 40));
+
+            assertEquals(local, results.get(0).getPost());
+            assertEquals(external, results.get(1).getPost());
+            assertEquals(404, results.get(2).getStatus());
+            verify(postDao, never()).findById(any());
+        }
+    }
+
+    @Nested
+    class updatePosts {
+        @Test
+        void shouldUpdateExistingPostsAndReportMissingOnes() {
+            when(postDao.findAllById(Set.of(1, 999))).thenReturn(List.of(post));
+
+            List<BatchItemResult> results = postService.updatePosts(List.of(new Post(1, 1, "New Title", "New Body"), new Post(999, 1, "Title", "Body")));
+
+            assertEquals(200, results.get(0).getStatus());
+            assertEquals("New Title", results.get(0).getPost().getTitle());
+            assertEquals(404, results.get(1).getStatus());
+            verify(postDao, times(1)).saveAll(anyCollection());
+            verify(restTemplate, never()).getForObject(any(URI.class), eq(Post.class));
+        }
+
+        @Test
+        void shouldNotSaveOrReindexPostsWithVersionConflict() {
+            post.setTitle("Original");
+            post.setVersion(3L);
+            Post other = new Post(2, 1, "Other", "Body");
+            other.setVersion(1L);
+            when(postDao.findAllById(Set.of(1, 2))).thenReturn(List.of(post, other));
+            Post conflicting = new Post(1, 1, "Stale Title", "Body");
+            conflicting.setVersion(2L);
+
+            List<BatchItemResult> results = postService.updatePosts(List.of(conflicting, new Post(2, 1, "New Title", "Body")));
+
+            assertEquals(409, results.get(0).getStatus());
+            assertEquals(200, results.get(1).getStatus());
+            verify(postDao).saveAll(List.of(other));
+            assertEquals(List.of(), searchIndex.search("Original", null, null, null, 10));
+        }
+    }
+
+    @Nested
+    class deletePosts {
+        @Test
+        void shouldDeleteExistingPostsWithOneStatement() {
+            when(postDao.findExistingIds(Set.of(1, 999))).thenReturn(List.of(1));
+
+            List<BatchItemResult> results = postService.deletePosts(List.of(1, 999));
+
+            assertEquals(204, results.get(0).getStatus());
+            assertEquals(404, results.get(1).getStatus());
+            verify(postDao, times(1)).deleteByIds(Set.of(1));
+        }
+    }
+
+    @Nested
+    class searchPosts {
+        @BeforeEach
+        void indexPosts() {
+            searchIndex.index(List.of(
+                    new Post(1, 1, "Spring boot", "Tuning the connection pool"),
+                    new Post(2, 1, "Connection pool", "Sizing a pool for spring boot"),
+                    new Post(3, 2, "Cooking", "A recipe for boot camp")));
+        }
+
+        @Test
+        void shouldPageThroughRankedHitsWithCursor() {
+            PostPage firstPage = postService.searchPosts("spring boot", null, null, 1);
+            PostPage secondPage = postService.searchPosts("spring boot", null, firstPage.getNext(), 1);
+
+            assertEquals(List.of(1), firstPage.getItems().stream().map(PostSummary::getId).toList());
+            assertEquals(List.of(2), secondPage.getItems().stream().map(PostSummary::getId).toList());
+            assertNull(secondPage.getNext());
+        }
+
+        @Test
+        void shouldNotFindDeletedPosts() {
+            when(postDao.deleteIfPresent(1)).thenReturn(1);
+
+            postService.deletePost(1);
+
+            assertEquals(List.of(2), postService.searchPosts("spring", 1, null, 10).getItems().stream().map(PostSummary::getId).toList());
+            assertThrows(InvalidCursorException.class, () -> postService.searchPosts("spring", null, "not-a-cursor", 10));
+        }
+    }
+
+    @Nested
+    class listPosts {
+        @Test
+        void shouldReturnCursorThatContinuesAfterLastItem() {
+            PostSummary first = new PostSummary(10, 1, "Title1", "Body1");
+            PostSummary second = new PostSummary(11, 1, "Title2", "Body2");
+            PostSummary third = new PostSummary(12, 1, "Title3", "Body3");
+
+            when(postDao.findPageByUserId(1, 0, Limit.of(3))).thenReturn(List.of(first, second, third));
+            when(postDao.findPageByUserId(1, 11, Limit.of(3))).thenReturn(List.of(third));
+
+            PostPage firstPage = postService.listPosts(1, null, 2);
+            PostPage secondPage = postService.listPosts(1, firstPage.getNext(), 2);
+
+            assertEquals(List.of(first, second), firstPage.getItems());
+            assertNotNull(firstPage.getNext());
+            assertEquals(List.of(third), secondPage.getItems());
+            assertNull(secondPage.getNext());
+        }
+
+        @Test
+        void whenCursorBelongsToAnotherUser_thenThrowInvalidCursorException() {
+            when(postDao.findPageByUserId(1, 0, Limit.of(2))).thenReturn(List.of(new PostSummary(10, 1, "Title1", "Body1"), new PostSummary(11, 1, "Title2", "Body2")));
+
+            String cursor = postService.listPosts(1, null, 1).getNext();
+
+            assertThrows(InvalidCursorException.class, () -> postService.listPosts(2, cursor, 1));
+            assertThrows(InvalidCursorException.class, () -> postService.listPosts(1, "not-a-cursor", 1));
+        }
+    }
+
+    @Nested
+    class exportPosts {
+        @Test
+        void shouldPassEveryPostToConsumerAndCloseStream() {
+            PostSummary first = new PostSummary(1, 1, "Title1", "Body1");
+            PostSummary second = new PostSummary(2, 1, "Title2", "Body2");
+            List<PostSummary> exported = new ArrayList<>();
+            boolean[] closed = {false};
+
+            when(postDao.streamAll()).thenReturn(Stream.of(first, second).onClose(() -> closed[0] = true));
+
+            postService.exportPosts(exported::add);
+
+            assertEquals(List.of(first, second), exported);
+            assertTrue(closed[0]);
+        }
+    }
+
+    @Nested
+    class importPosts {
+        @Test
+        void shouldInsertMissingUpdateChangedAndSkipIdenticalPosts() {
+            Post stored = new Post(1, 1, "Title", "Body");
+            Post outdated = new Post(2, 1, "Old Title", "Body");
+
+            Post missing = new Post(3, 1, "Title", "Body");
+            missing.setVersion(0L);
+
+            when(postDao.findAllById(Set.of(1, 2, 3))).thenReturn(List.of(stored, outdated));
+            when(postDao.saveAll(List.of(outdated, missing))).thenReturn(List.of(outdated, missing));
+
+            ImportResult result = postService.importPosts(List.of(
+                    new Post(1, 1, "Title", "Body"),
+                    new Post(2, 1, "New Title", "Body"),
+                    new Post(3, 1, "Title", "Body")));
+
+            assertEquals(new ImportResult(1, 1, 1, 0), result);
+            assertEquals("New Title", outdated.getTitle());
+            verify(postDao, times(1)).saveAll(List.of(outdated, new Post(3, 1, "Title", "Body")));
+            verify(outbox).record(PostChange.Type.IMPORTED, List.of(missing));
+            verify(outbox).record(PostChange.Type.UPDATED, List.of(outdated));
+        }
+
+        @Test
+        void shouldRejectPostsWithLocalIds() {
+            Post imported = new Post(2, 1, "Title", "Body");
+            imported.setVersion(0L);
+
+            when(postDao.findAllById(Set.of(2))).thenReturn(List.of());
+            when(postDao.saveAll(List.of(imported))).thenReturn(List.of(imported));
+
+            ImportResult result = postService.importPosts(List.of(
+                    new Post(1_000_000_007, 2, "Upstream Title", "Upstream Body"),
+                    new Post(2, 1, "Title", "Body")));
+
+            assertEquals(new ImportResult(1, 0, 0, 1), result);
+            verify(postDao).findAllById(Set.of(2));
+            verify(postDao).saveAll(List.of(imported));
+        }
+    }
+
+    private void enableMembershipIndex(Integer... storedIds) {
+        membershipProperties.setEnabled(true);
+        when(postDao.count()).thenReturn((long) storedIds.length);
+        when(postDao.streamIds()).thenReturn(Stream.of(storedIds));
+        membershipIndex.rebuild();
     }
-}
\ No newline at end of file
+}
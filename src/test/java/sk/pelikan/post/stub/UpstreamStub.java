@@ -0,0 +1,272 @@
+package sk.pelikan.post.stub;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for the external posts API, serving the jsonplaceholder resources the client uses: single posts
+ * and users, pages of posts and all users. Posts 1 to {@code posts} exist and belong to users 1 to {@code users}
+ * round robin. Every response is delayed by {@code latency} plus up to {@code jitter}, and answered with 503 with
+ * probability {@code errorRate}. Latency and error rate can be changed while the stub runs, to reproduce an
+ * upstream degrading in the middle of a test.
+ * <p>
+ * Embedded in tests and benchmarks through {@link #builder()}, or run standalone for load tests with
+ * {@code key=value} arguments, e.g. {@code port=8089 posts=100000 latency=PT0.05S error-rate=0.01}.
+ */
+public class UpstreamStub implements AutoCloseable {
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final int posts;
+    private final int users;
+    private final AtomicLong requests = new AtomicLong();
+    private volatile Duration latency;
+    private volatile Duration jitter;
+    private volatile double errorRate;
+
+    private UpstreamStub(Builder builder) throws IOException {
+        this.posts = builder.posts;
+        this.users = builder.users;
+        this.latency = builder.latency;
+        this.jitter = builder.jitter;
+        this.errorRate = builder.errorRate;
+        server = HttpServer.create(new InetSocketAddress("localhost", builder.port), 0);
+        server.createContext("/posts", this::handlePosts);
+        server.createContext("/users", this::handleUsers);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            options.put(option[0], option.length > 1 ? option[1] : "");
+        }
+        Builder builder = builder().port(Integer.parseInt(options.getOrDefault("port", "8089")));
+        if (options.containsKey("posts")) {
+            builder.posts(Integer.parseInt(options.get("posts")));
+        }
+        if (options.containsKey("users")) {
+            builder.users(Integer.parseInt(options.get("users")));
+        }
+        if (options.containsKey("latency")) {
+            builder.latency(Duration.parse(options.get("latency")));
+        }
+        if (options.containsKey("jitter")) {
+            builder.jitter(Duration.parse(options.get("jitter")));
+        }
+        if (options.containsKey("error-rate")) {
+            builder.errorRate(Double.parseDouble(options.get("error-rate")));
+        }
+        UpstreamStub stub = builder.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(stub::close));
+        System.out.println("Upstream stub listening on " + stub.getBaseUrl());
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Number of requests received so far, including the ones answered with an error.
+     */
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    public void setLatency(Duration latency) {
+        this.latency = latency;
+    }
+
+    public void setJitter(Duration jitter) {
+        this.jitter = jitter;
+    }
+
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handlePosts(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!simulate(exchange)) {
+                return;
+            }
+            String path = exchange.getRequestURI().getPath();
+            if (path.equals("/posts")) {
+                Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+                int pageNumber = Integer.parseInt(query.getOrDefault("_page", "1"));
+                int limit = Integer.parseInt(query.getOrDefault("_limit", "10"));
+                StringJoiner page = new StringJoiner(",", "[", "]");
+                long first = (long) (pageNumber - 1) * limit + 1;
+                for (long id = first; id < first + limit && id <= posts; id++) {
+                    page.add(post((int) id));
+                }
+                respond(exchange, page.toString());
+            } else {
+                int id = id(path, "/posts/");
+                respond(exchange, id >= 1 && id <= posts ? post(id) : null);
+            }
+        }
+    }
+
+    private void handleUsers(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!simulate(exchange)) {
+                return;
+            }
+            String path = exchange.getRequestURI().getPath();
+            if (path.equals("/users")) {
+                StringJoiner all = new StringJoiner(",", "[", "]");
+                for (int id = 1; id <= users; id++) {
+                    all.add(user(id));
+                }
+                respond(exchange, all.toString());
+            } else {
+                int id = id(path, "/users/");
+                respond(exchange, id >= 1 && id <= users ? user(id) : null);
+            }
+        }
+    }
+
+    /**
+     * Applies the configured latency and error rate.
+     *
+     * @return false if the request was answered with an error
+     */
+    private boolean simulate(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        long delay = latency.toMillis();
+        long maxJitter = jitter.toMillis();
+        if (maxJitter > 0) {
+            delay += ThreadLocalRandom.current().nextLong(maxJitter + 1);
+        }
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            exchange.sendResponseHeaders(503, -1);
+            return false;
+        }
+        return true;
+    }
+
+    private String post(int id) {
+        int userId = (id - 1) % users + 1;
+        return "{\"id\":" + id + ",\"userId\":" + userId + ",\"title\":\"Post " + id + "\",\"body\":\"Body of post " + id + "\"}";
+    }
+
+    private static String user(int id) {
+        return "{\"id\":" + id + ",\"name\":\"User " + id + "\"}";
+    }
+
+    private static int id(String path, String prefix) {
+        try {
+            return Integer.parseInt(path.substring(prefix.length()));
+        } catch (IndexOutOfBoundsException | NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery != null) {
+            for (String parameter : rawQuery.split("&")) {
+                String[] pair = parameter.split("=", 2);
+                query.put(pair[0], pair.length > 1 ? pair[1] : "");
+            }
+        }
+        return query;
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(404, -1);
+            return;
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    public static class Builder {
+        private int port;
+        private int posts = 100;
+        private int users = 10;
+        private Duration latency = Duration.ZERO;
+        private Duration jitter = Duration.ZERO;
+        private double errorRate;
+
+        private Builder() {
+        }
+
+        /**
+         * Port to listen on, 0 for any free port.
+         */
+        public Builder port(int port) {
+            this.port = port;
+            return this;
+        }
+
+        public Builder posts(int posts) {
+            this.posts = posts;
+            return this;
+        }
+
+        public Builder users(int users) {
+            this.users = users;
+            return this;
+        }
+
+        public Builder latency(Duration latency) {
+            this.latency = latency;
+            return this;
+        }
+
+        public Builder jitter(Duration jitter) {
+            this.jitter = jitter;
+            return this;
+        }
+
+        /**
+         * Share of requests answered with 503, between 0 and 1.
+         */
+        public Builder errorRate(double errorRate) {
+            this.errorRate = errorRate;
+            return this;
+        }
+
+        public UpstreamStub start() throws IOException {
+            return new UpstreamStub(this);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package sk.pelikan.post.sync;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import sk.pelikan.post.cache.UserCache;
+import sk.pelikan.post.client.ExternalApiClient;
+import sk.pelikan.post.config.SyncProperties;
+import sk.pelikan.post.domain.ImportResult;
+import sk.pelikan.post.domain.Post;
+import sk.pelikan.post.domain.User;
+import sk.pelikan.post.exception.ExternalApiException;
+import sk.pelikan.post.service.PostService;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PostSyncJobTest {
+    @Mock
+    private ExternalApiClient externalApiClient;
+    @Mock
+    private PostService postService;
+    @Mock
+    private UserCache userCache;
+    private SimpleMeterRegistry registry;
+    private PostSyncJob postSyncJob;
+
+    @BeforeEach
+    void setUp() {
+        SyncProperties properties = new SyncProperties();
+        properties.setPageSize(2);
+        properties.setParallelism(2);
+        registry = new SimpleMeterRegistry();
+        postSyncJob = new PostSyncJob(externalApiClient, postService, userCache, properties, registry);
+    }
+
+    @Test
+    void shouldImportPagesUntilShortPageAndPrimeUserCache() {
+        User user = new User(1, "User Name");
+        List<Post> page1 = List.of(new Post(1, 1, "T1", "B1"), new Post(2, 1, "T2", "B2"));
+        List<Post> page2 = List.of(new Post(3, 1, "T3", "B3"), new Post(4, 1, "T4", "B4"));
+        List<Post> page3 = List.of(new Post(5, 1, "T5", "B5"));
+
+        when(externalApiClient.fetchUsers()).thenReturn(List.of(user));
+        when(externalApiClient.fetchPostPage(anyInt(), eq(2))).thenAnswer(invocation -> switch ((int) invocation.getArgument(0)) {
+            case 1 -> page1;
+            case 2 -> page2;
+            case 3 -> page3;
+            default -> List.of();
+        });
+        when(postService.importPosts(anyList())).thenAnswer(invocation -> new ImportResult(((List<?>) invocation.getArgument(0)).size(), 0, 0, 0));
+
+        ImportResult result = postSyncJob.run();
+
+        assertEquals(new ImportResult(5, 0, 0, 0), result);
+        verify(userCache).put(user);
+        verify(postService, times(3)).importPosts(anyList());
+        assertEquals(3, registry.get("post.sync.pages").counter().count());
+        assertEquals(5, registry.get("post.sync.posts").tag("result", "inserted").counter().count());
+        assertTrue(registry.get("post.sync.last.success").timeGauge().value() > 0);
+    }
+
+    @Test
+    void whenPageFetchFails_thenRunFails() {
+        when(externalApiClient.fetchUsers()).thenReturn(List.of());
+        when(externalApiClient.fetchPostPage(anyInt(), eq(2))).thenThrow(new ExternalApiException("External API error"));
+
+        assertThrows(ExternalApiException.class, () -> postSyncJob.run());
+        verify(postService, never()).importPosts(anyList());
+        assertEquals(0, registry.get("post.sync.running").gauge().value());
+    }
+}